@@ -0,0 +1,349 @@
+package Array;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+// Sorting for the arrays ArraySortDemo hands to Arrays.sort, when they get large.
+//
+//   int[] / long[] : LSD radix sort, one byte per pass (4 / 8 passes). A pass whose
+//                    byte is the same for every element is skipped, so small values
+//                    sort in fewer passes. Negative numbers come first because the
+//                    sign bit is flipped in the top byte.
+//   String[]       : multikey (three-way radix) quicksort, which partitions on one
+//                    char at a time and never re-compares a shared prefix.
+//
+// The parallel versions split the work on the fork-join common pool. For numbers, a
+// first MSD pass on the top byte runs in per-thread chunks (histogram, then scatter),
+// and the 256 buckets are LSD-sorted independently. For strings, the three partitions
+// of every large quicksort step are sorted as separate tasks.
+// sort() picks one by length and core count: Arrays.sort below RADIX_THRESHOLD, the
+// sequential version up to PARALLEL_THRESHOLD, the parallel one above it.
+
+public class ArraySorter {
+
+    static final int RADIX_THRESHOLD = 256;
+    static final int PARALLEL_THRESHOLD = 1 << 18;
+    static final int INSERTION_THRESHOLD = 16;
+    static final int STRING_TASK_THRESHOLD = 1 << 13;
+
+    private static boolean parallel(int length){
+        return length >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    public static void sort(int[] a){
+        if(a.length < RADIX_THRESHOLD) Arrays.sort(a);
+        else if(parallel(a.length)) parallelRadixSort(a);
+        else radixSort(a);
+    }
+
+    public static void sort(long[] a){
+        if(a.length < RADIX_THRESHOLD) Arrays.sort(a);
+        else if(parallel(a.length)) parallelRadixSort(a);
+        else radixSort(a);
+    }
+
+    public static void sort(String[] a){
+        if(a.length < RADIX_THRESHOLD) Arrays.sort(a);
+        else if(parallel(a.length)) parallelMultikeySort(a);
+        else multikeySort(a);
+    }
+
+    // ---- int ----
+
+    private static int digit(int x, int shift){
+        return ((x >>> shift) & 0xFF) ^ (shift == 24 ? 0x80 : 0);
+    }
+
+    public static void radixSort(int[] a){
+        lsd(a, new int[a.length], 0, a.length, 24);
+    }
+
+    // Sorts a[from, to) on the bytes at shifts 0 .. topShift, using buf[from, to) as scratch
+    private static void lsd(int[] a, int[] buf, int from, int to, int topShift){
+        if(to - from < INSERTION_THRESHOLD){
+            Arrays.sort(a, from, to);
+            return;
+        }
+        int[] src = a, dst = buf;
+        int[] count = new int[256];
+        for(int shift = 0; shift <= topShift; shift += 8){
+            Arrays.fill(count, 0);
+            for(int i = from; i < to; i++){
+                count[digit(src[i], shift)]++;
+            }
+            if(count[digit(src[from], shift)] == to - from){
+                continue;                               // every element has the same byte here
+            }
+            for(int b = 0, pos = from; b < 256; b++){
+                int c = count[b];
+                count[b] = pos;
+                pos += c;
+            }
+            for(int i = from; i < to; i++){
+                dst[count[digit(src[i], shift)]++] = src[i];
+            }
+            int[] t = src;
+            src = dst;
+            dst = t;
+        }
+        if(src != a){
+            System.arraycopy(src, from, a, from, to - from);
+        }
+    }
+
+    public static void parallelRadixSort(int[] a){
+        int n = a.length;
+        int[] buf = new int[n];
+        int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, n / 4096));
+        int[][] counts = new int[chunks][256];
+
+        // MSD pass on the top byte: per-chunk histograms, then every chunk scatters into its own slots
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] count = counts[c];
+            for(int i = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1); i < end; i++){
+                count[digit(a[i], 24)]++;
+            }
+        });
+        int[] bucketStart = new int[257];
+        for(int b = 0, pos = 0; b < 256; b++){
+            bucketStart[b] = pos;
+            for(int c = 0; c < chunks; c++){
+                int k = counts[c][b];
+                counts[c][b] = pos;
+                pos += k;
+            }
+            bucketStart[b + 1] = pos;
+        }
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] next = counts[c];
+            for(int i = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1); i < end; i++){
+                buf[next[digit(a[i], 24)]++] = a[i];
+            }
+        });
+
+        // Buckets are independent: LSD each one on the lower three bytes
+        IntStream.range(0, 256).parallel().forEach(b -> {
+            int from = bucketStart[b], to = bucketStart[b + 1];
+            if(to > from){
+                lsd(buf, a, from, to, 16);
+                System.arraycopy(buf, from, a, from, to - from);
+            }
+        });
+    }
+
+    // ---- long ----
+
+    private static int digit(long x, int shift){
+        return (int) ((x >>> shift) & 0xFF) ^ (shift == 56 ? 0x80 : 0);
+    }
+
+    public static void radixSort(long[] a){
+        lsd(a, new long[a.length], 0, a.length, 56);
+    }
+
+    private static void lsd(long[] a, long[] buf, int from, int to, int topShift){
+        if(to - from < INSERTION_THRESHOLD){
+            Arrays.sort(a, from, to);
+            return;
+        }
+        long[] src = a, dst = buf;
+        int[] count = new int[256];
+        for(int shift = 0; shift <= topShift; shift += 8){
+            Arrays.fill(count, 0);
+            for(int i = from; i < to; i++){
+                count[digit(src[i], shift)]++;
+            }
+            if(count[digit(src[from], shift)] == to - from){
+                continue;
+            }
+            for(int b = 0, pos = from; b < 256; b++){
+                int c = count[b];
+                count[b] = pos;
+                pos += c;
+            }
+            for(int i = from; i < to; i++){
+                dst[count[digit(src[i], shift)]++] = src[i];
+            }
+            long[] t = src;
+            src = dst;
+            dst = t;
+        }
+        if(src != a){
+            System.arraycopy(src, from, a, from, to - from);
+        }
+    }
+
+    public static void parallelRadixSort(long[] a){
+        int n = a.length;
+        long[] buf = new long[n];
+        int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, n / 4096));
+        int[][] counts = new int[chunks][256];
+
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] count = counts[c];
+            for(int i = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1); i < end; i++){
+                count[digit(a[i], 56)]++;
+            }
+        });
+        int[] bucketStart = new int[257];
+        for(int b = 0, pos = 0; b < 256; b++){
+            bucketStart[b] = pos;
+            for(int c = 0; c < chunks; c++){
+                int k = counts[c][b];
+                counts[c][b] = pos;
+                pos += k;
+            }
+            bucketStart[b + 1] = pos;
+        }
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] next = counts[c];
+            for(int i = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1); i < end; i++){
+                buf[next[digit(a[i], 56)]++] = a[i];
+            }
+        });
+        IntStream.range(0, 256).parallel().forEach(b -> {
+            int from = bucketStart[b], to = bucketStart[b + 1];
+            if(to > from){
+                lsd(buf, a, from, to, 48);
+                System.arraycopy(buf, from, a, from, to - from);
+            }
+        });
+    }
+
+    private static int chunkStart(int n, int chunks, int c){
+        return (int) ((long) n * c / chunks);
+    }
+
+    // ---- String ----
+
+    // d-th char, or -1 past the end so shorter strings sort first (String.compareTo order)
+    private static int charAt(String s, int d){
+        return d < s.length() ? s.charAt(d) : -1;
+    }
+
+    public static void multikeySort(String[] a){
+        multikey(a, 0, a.length - 1, 0, false);
+    }
+
+    public static void parallelMultikeySort(String[] a){
+        ForkJoinPool.commonPool().invoke(new MultikeyTask(a, 0, a.length - 1, 0));
+    }
+
+    private static final class MultikeyTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final String[] a;
+        final int lo, hi, d;
+
+        MultikeyTask(String[] a, int lo, int hi, int d){
+            this.a = a;
+            this.lo = lo;
+            this.hi = hi;
+            this.d = d;
+        }
+
+        @Override
+        protected void compute(){
+            multikey(a, lo, hi, d, true);
+        }
+    }
+
+    // Sorts a[lo..hi] whose elements share their first d chars. The equal-to-pivot
+    // partition continues in the loop at depth d + 1, so recursion depth does not grow
+    // with the length of common prefixes.
+    private static void multikey(String[] a, int lo, int hi, int d, boolean parallel){
+        while (hi - lo >= INSERTION_THRESHOLD){
+            int v = charAt(a[median3(a, lo, (lo + hi) >>> 1, hi, d)], d);
+            int lt = lo, gt = hi, i = lo;
+            while (i <= gt){
+                int t = charAt(a[i], d);
+                if(t < v) swap(a, lt++, i++);
+                else if(t > v) swap(a, i, gt--);
+                else i++;
+            }
+            // a[lo..lt-1] < v, a[lt..gt] == v, a[gt+1..hi] > v
+            if(parallel && hi - lo >= STRING_TASK_THRESHOLD){
+                MultikeyTask left = new MultikeyTask(a, lo, lt - 1, d);
+                MultikeyTask right = new MultikeyTask(a, gt + 1, hi, d);
+                if(v >= 0){
+                    RecursiveAction.invokeAll(left, right, new MultikeyTask(a, lt, gt, d + 1));
+                } else {
+                    RecursiveAction.invokeAll(left, right);
+                }
+                return;
+            }
+            multikey(a, lo, lt - 1, d, parallel);
+            multikey(a, gt + 1, hi, d, parallel);
+            if(v < 0){
+                return;                                 // all ended at d: equal strings
+            }
+            lo = lt;
+            hi = gt;
+            d++;
+        }
+        insertionSort(a, lo, hi, d);
+    }
+
+    private static int median3(String[] a, int i, int j, int k, int d){
+        int x = charAt(a[i], d), y = charAt(a[j], d), z = charAt(a[k], d);
+        return x < y ? (y < z ? j : x < z ? k : i) : (x < z ? i : y < z ? k : j);
+    }
+
+    private static void insertionSort(String[] a, int lo, int hi, int d){
+        for(int i = lo + 1; i <= hi; i++){
+            String s = a[i];
+            int j = i;
+            while (j > lo && lessFrom(s, a[j - 1], d)){
+                a[j] = a[j - 1];
+                j--;
+            }
+            a[j] = s;
+        }
+    }
+
+    private static boolean lessFrom(String s, String t, int d){
+        int n = Math.min(s.length(), t.length());
+        for(int i = d; i < n; i++){
+            char c1 = s.charAt(i), c2 = t.charAt(i);
+            if(c1 != c2) return c1 < c2;
+        }
+        return s.length() < t.length();
+    }
+
+    private static void swap(String[] a, int i, int j){
+        String t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    public static void main(String[]args){
+
+        int [] a = {10,5,20,11,6,-3,Integer.MIN_VALUE,Integer.MAX_VALUE};
+        radixSort(a);
+        System.out.println(Arrays.toString(a));     // [-2147483648, -3, 5, 6, 10, 11, 20, 2147483647]
+
+        long [] l = {10L,-5L,1L << 40,0L};
+        radixSort(l);
+        System.out.println(Arrays.toString(l));     // [-5, 0, 10, 1099511627776]
+
+        String [] s = {"Z","A","B","AB","","BA"};
+        multikeySort(s);
+        System.out.println(Arrays.toString(s));     // [, A, AB, B, BA, Z]
+
+        int [] big = new Random(1).ints(5_000_000).toArray();
+        int [] expected = big.clone();
+        Arrays.sort(expected);
+        sort(big);
+        System.out.println(Arrays.equals(big, expected));   // true
+    }
+}
+
+/* Output :->
+[-2147483648, -3, 5, 6, 10, 11, 20, 2147483647]
+[-5, 0, 10, 1099511627776]
+[, A, AB, B, BA, Z]
+true
+*/
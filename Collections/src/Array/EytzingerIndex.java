@@ -0,0 +1,196 @@
+package Array;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Frozen lookup table for sorted int keys with the result of Arrays.binarySearch
+// (index if found, otherwise -(insertion point) - 1), as used in ArraySearchDemo.
+// For duplicate keys it returns the first one, which binarySearch also allows.
+//
+// The keys are stored in Eytzinger (BFS) order: the root at 1, the children of k at 2k
+// and 2k + 1. A search walks down the same way binary search halves the range, but
+// the top levels sit together in a few cache lines that stay hot, and the two possible
+// next nodes are neighbours. The step k = 2k + (e[k] < key) is plain arithmetic with
+// no branch to mispredict. On leaving the tree the lower bound is the last node where
+// the walk went left: shifting out the trailing 1 bits plus one more bit returns to it.
+// rank[k] maps that node back to its index in the sorted array.
+//
+// Java has no prefetch instruction, so searchAll() gets the same effect by walking a
+// block of keys in lockstep, one level at a time: the loads for different keys are
+// independent, so the CPU overlaps their cache misses.
+
+public class EytzingerIndex {
+
+    static final int BATCH = 16;
+
+    private final int[] e;          // e[1..n] in BFS order, e[0] unused
+    private final int[] rank;       // sorted index of e[k]
+    private final int n;
+
+    // keys must be sorted ascending (as for Arrays.binarySearch)
+    public EytzingerIndex(int[] sortedKeys){
+        n = sortedKeys.length;
+        e = new int[n + 1];
+        rank = new int[n + 1];
+        fill(sortedKeys, 0, 1);
+    }
+
+    private int fill(int[] sorted, int i, int k){
+        if(k <= n){
+            i = fill(sorted, i, 2 * k);
+            e[k] = sorted[i];
+            rank[k] = i++;
+            i = fill(sorted, i, 2 * k + 1);
+        }
+        return i;
+    }
+
+    public int size(){
+        return n;
+    }
+
+    public int search(int key){
+        int k = 1;
+        while (k <= n){
+            k = 2 * k + (int) (((long) e[k] - key) >>> 63);      // +1 when e[k] < key
+        }
+        k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+        return result(k, key);
+    }
+
+    // search() for every key; the walk is interleaved across blocks of BATCH keys
+    public int[] searchAll(int[] keys){
+        int[] out = new int[keys.length];
+        int[] k = new int[BATCH];
+        for(int base = 0; base < keys.length; base += BATCH){
+            int m = Math.min(BATCH, keys.length - base);
+            Arrays.fill(k, 0, m, 1);
+            for(boolean active = n > 0; active; ){
+                active = false;
+                for(int j = 0; j < m; j++){
+                    int kj = k[j];
+                    if(kj <= n){
+                        kj = 2 * kj + (int) (((long) e[kj] - keys[base + j]) >>> 63);
+                        k[j] = kj;
+                        active |= kj <= n;
+                    }
+                }
+            }
+            for(int j = 0; j < m; j++){
+                int kj = k[j] >>> (Integer.numberOfTrailingZeros(~k[j]) + 1);
+                out[base + j] = result(kj, keys[base + j]);
+            }
+        }
+        return out;
+    }
+
+    // k = node of the first key >= key, or 0 when every key is smaller
+    private int result(int k, int key){
+        if(k == 0){
+            return -(n + 1);
+        }
+        return e[k] == key ? rank[k] : -(rank[k] + 1);
+    }
+
+    // Same structure for long keys
+    public static class OfLong {
+        private final long[] e;
+        private final int[] rank;
+        private final int n;
+
+        public OfLong(long[] sortedKeys){
+            n = sortedKeys.length;
+            e = new long[n + 1];
+            rank = new int[n + 1];
+            fill(sortedKeys, 0, 1);
+        }
+
+        private int fill(long[] sorted, int i, int k){
+            if(k <= n){
+                i = fill(sorted, i, 2 * k);
+                e[k] = sorted[i];
+                rank[k] = i++;
+                i = fill(sorted, i, 2 * k + 1);
+            }
+            return i;
+        }
+
+        public int size(){
+            return n;
+        }
+
+        public int search(long key){
+            int k = 1;
+            while (k <= n){
+                k = 2 * k + (e[k] < key ? 1 : 0);       // compiled to a flag set, not a jump
+            }
+            k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+            return result(k, key);
+        }
+
+        public int[] searchAll(long[] keys){
+            int[] out = new int[keys.length];
+            int[] k = new int[BATCH];
+            for(int base = 0; base < keys.length; base += BATCH){
+                int m = Math.min(BATCH, keys.length - base);
+                Arrays.fill(k, 0, m, 1);
+                for(boolean active = n > 0; active; ){
+                    active = false;
+                    for(int j = 0; j < m; j++){
+                        int kj = k[j];
+                        if(kj <= n){
+                            kj = 2 * kj + (e[kj] < keys[base + j] ? 1 : 0);
+                            k[j] = kj;
+                            active |= kj <= n;
+                        }
+                    }
+                }
+                for(int j = 0; j < m; j++){
+                    int kj = k[j] >>> (Integer.numberOfTrailingZeros(~k[j]) + 1);
+                    out[base + j] = result(kj, keys[base + j]);
+                }
+            }
+            return out;
+        }
+
+        private int result(int k, long key){
+            if(k == 0){
+                return -(n + 1);
+            }
+            return e[k] == key ? rank[k] : -(rank[k] + 1);
+        }
+    }
+
+    public static void main(String[]args){
+
+        int [] a = {10,5,20,11,6};
+        Arrays.sort(a);
+        EytzingerIndex index = new EytzingerIndex(a);
+        System.out.println(index.search(6));    //1
+        System.out.println(index.search(14));   //-5
+        System.out.println(Arrays.toString(index.searchAll(new int[]{4, 5, 20, 21})));   //[-1, 0, 4, -6]
+
+        // 10M keys: same answers as Arrays.binarySearch
+        int [] big = new Random(7).ints(10_000_000, 0, Integer.MAX_VALUE).sorted().distinct().toArray();
+        EytzingerIndex bigIndex = new EytzingerIndex(big);
+        int [] queries = new Random(8).ints(1_000_000, 0, Integer.MAX_VALUE).toArray();
+        int [] batched = bigIndex.searchAll(queries);
+        boolean same = true;
+        for(int i = 0; i < queries.length; i++){
+            int expected = Arrays.binarySearch(big, queries[i]);
+            same &= bigIndex.search(queries[i]) == expected && batched[i] == expected;
+        }
+        System.out.println(same);               //true
+
+        long [] l = {-7L, 3L, 1L << 40};
+        System.out.println(new OfLong(l).search(4L));    //-3
+    }
+}
+
+/* Output :->
+1
+-5
+[-1, 0, 4, -6]
+true
+-3
+*/
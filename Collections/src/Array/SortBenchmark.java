@@ -0,0 +1,103 @@
+package Array;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Consumer;
+
+// Timing of ArraySorter against Arrays.sort / Arrays.parallelSort on random int[],
+// long[] and short String[] data. Every round sorts a fresh copy of the same input;
+// a few warm-up rounds run first and the median of the measured rounds is printed as
+// CSV (algorithm,type,size,ms). Each result is checked against Arrays.sort.
+// Plain System.nanoTime() harness, as there is no build file here to add JMH to.
+//   java Array.SortBenchmark 1000000 10000000
+
+public class SortBenchmark {
+
+    static final int WARMUP = 3;
+    static final int ROUNDS = 5;
+
+    public static void main(String[] args){
+        int[] sizes = args.length == 0 ? new int[]{100_000, 1_000_000, 10_000_000}
+                : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        System.out.println("algorithm,type,size,ms");
+
+        for(int n : sizes){
+            Random random = new Random(n);
+
+            int[] ints = random.ints(n).toArray();
+            int[] intsSorted = ints.clone();
+            Arrays.sort(intsSorted);
+            run("Arrays.sort", "int", ints, intsSorted, Arrays::sort);
+            run("Arrays.parallelSort", "int", ints, intsSorted, Arrays::parallelSort);
+            run("radixSort", "int", ints, intsSorted, ArraySorter::radixSort);
+            run("parallelRadixSort", "int", ints, intsSorted, ArraySorter::parallelRadixSort);
+            run("ArraySorter.sort", "int", ints, intsSorted, ArraySorter::sort);
+
+            long[] longs = random.longs(n).toArray();
+            long[] longsSorted = longs.clone();
+            Arrays.sort(longsSorted);
+            run("Arrays.sort", "long", longs, longsSorted, Arrays::sort);
+            run("Arrays.parallelSort", "long", longs, longsSorted, Arrays::parallelSort);
+            run("radixSort", "long", longs, longsSorted, ArraySorter::radixSort);
+            run("parallelRadixSort", "long", longs, longsSorted, ArraySorter::parallelRadixSort);
+            run("ArraySorter.sort", "long", longs, longsSorted, ArraySorter::sort);
+
+            // Short ids like "k3x9a" with shared prefixes
+            String[] strings = new String[n];
+            for(int i = 0; i < n; i++){
+                strings[i] = "id-" + Integer.toString(random.nextInt(Math.max(n, 2)), 36);
+            }
+            String[] stringsSorted = strings.clone();
+            Arrays.sort(stringsSorted);
+            run("Arrays.sort", "String", strings, stringsSorted, Arrays::sort);
+            run("Arrays.parallelSort", "String", strings, stringsSorted, Arrays::parallelSort);
+            run("multikeySort", "String", strings, stringsSorted, ArraySorter::multikeySort);
+            run("parallelMultikeySort", "String", strings, stringsSorted, ArraySorter::parallelMultikeySort);
+            run("ArraySorter.sort", "String", strings, stringsSorted, ArraySorter::sort);
+        }
+    }
+
+    private static void run(String name, String type, int[] input, int[] expected, Consumer<int[]> sorter){
+        double[] ms = new double[ROUNDS];
+        for(int r = 0; r < WARMUP + ROUNDS; r++){
+            int[] a = input.clone();
+            long start = System.nanoTime();
+            sorter.accept(a);
+            long nanos = System.nanoTime() - start;
+            if(r >= WARMUP) ms[r - WARMUP] = nanos / 1e6;
+            if(r == 0 && !Arrays.equals(a, expected)) throw new AssertionError(name + " sorted " + type + "[] wrong");
+        }
+        report(name, type, input.length, ms);
+    }
+
+    private static void run(String name, String type, long[] input, long[] expected, Consumer<long[]> sorter){
+        double[] ms = new double[ROUNDS];
+        for(int r = 0; r < WARMUP + ROUNDS; r++){
+            long[] a = input.clone();
+            long start = System.nanoTime();
+            sorter.accept(a);
+            long nanos = System.nanoTime() - start;
+            if(r >= WARMUP) ms[r - WARMUP] = nanos / 1e6;
+            if(r == 0 && !Arrays.equals(a, expected)) throw new AssertionError(name + " sorted " + type + "[] wrong");
+        }
+        report(name, type, input.length, ms);
+    }
+
+    private static void run(String name, String type, String[] input, String[] expected, Consumer<String[]> sorter){
+        double[] ms = new double[ROUNDS];
+        for(int r = 0; r < WARMUP + ROUNDS; r++){
+            String[] a = input.clone();
+            long start = System.nanoTime();
+            sorter.accept(a);
+            long nanos = System.nanoTime() - start;
+            if(r >= WARMUP) ms[r - WARMUP] = nanos / 1e6;
+            if(r == 0 && !Arrays.equals(a, expected)) throw new AssertionError(name + " sorted " + type + "[] wrong");
+        }
+        report(name, type, input.length, ms);
+    }
+
+    private static void report(String name, String type, int n, double[] ms){
+        Arrays.sort(ms);
+        System.out.printf("%s,%s,%d,%.2f%n", name, type, n, ms[ROUNDS / 2]);
+    }
+}
@@ -0,0 +1,441 @@
+package Map;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongBiFunction;
+
+// Size-bounded in-process cache. LinkedHashMap(accessOrder=true) reorders its list on
+// every get(), so all readers serialize on one lock. Here the entries live in a
+// ConcurrentHashMap and get() only records the access in a striped, lossy ring
+// buffer; the eviction policy replays those buffers in batches under a tryLock.
+//
+// Policies:
+//   LRU          one access-ordered list, evict from the head
+//   TINY_LFU     W-TinyLFU: 1% LRU admission window + segmented LRU main area
+//                (probation / protected). When the cache is over its bound the newest
+//                probation entry only stays if a count-min frequency sketch says it is
+//                used more often than the probation victim.
+//
+// The bound is a weight (1 per entry unless a weigher is given). Entries may carry a
+// time-to-live; an expired entry is treated as a miss and dropped when it is read.
+
+public class BoundedCache<K, V> {
+
+    public enum Policy { LRU, TINY_LFU }
+
+    private static final int WINDOW = 0, PROBATION = 1, PROTECTED = 2;
+    private static final int READ_BUFFERS = 16;
+    private static final int READ_BUFFER_SIZE = 64;
+    private static final int DRAIN_THRESHOLD = 32;
+
+    private final ConcurrentHashMap<K, Node<K, V>> map = new ConcurrentHashMap<>();
+    private final Policy policy;
+    private final long maxWeight;
+    private final ToLongBiFunction<? super K, ? super V> weigher;
+    private final long defaultTtlNanos;
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ReadBuffer[] readBuffers = new ReadBuffer[READ_BUFFERS];
+
+    // Everything below is guarded by evictionLock
+    private final Node<K, V>[] heads;
+    private final long[] weights = new long[3];
+    private final long windowMax;
+    private final long protectedMax;
+    private final FrequencySketch sketch;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(long maxEntries, Policy policy){
+        this(maxEntries, policy, (k, v) -> 1, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public BoundedCache(long maxWeight, Policy policy, ToLongBiFunction<? super K, ? super V> weigher, long defaultTtlMillis){
+        if(maxWeight <= 0){
+            throw new IllegalArgumentException("maxWeight=" + maxWeight);
+        }
+        this.policy = policy;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.defaultTtlNanos = defaultTtlMillis * 1_000_000L;
+
+        heads = (Node<K, V>[]) new Node<?, ?>[3];
+        for(int q = 0; q < 3; q++){
+            heads[q] = new Node<>(null, null, 0, 0);
+            heads[q].prev = heads[q].next = heads[q];
+        }
+        if(policy == Policy.TINY_LFU){
+            windowMax = Math.max(1, maxWeight / 100);
+            protectedMax = (maxWeight - windowMax) * 8 / 10;
+            sketch = new FrequencySketch((int) Math.min(maxWeight, 1 << 24));
+        } else {
+            windowMax = maxWeight;
+            protectedMax = 0;
+            sketch = null;
+        }
+        for(int i = 0; i < READ_BUFFERS; i++){
+            readBuffers[i] = new ReadBuffer();
+        }
+    }
+
+    public V get(K key){
+        Node<K, V> node = map.get(key);
+        if(node == null){
+            misses.increment();
+            return null;
+        }
+        if(node.expiresAt != 0 && System.nanoTime() - node.expiresAt > 0){
+            misses.increment();
+            if(map.remove(key, node)){
+                evictionLock.lock();
+                try {
+                    unlink(node);
+                } finally {
+                    evictionLock.unlock();
+                }
+            }
+            return null;
+        }
+        hits.increment();
+        recordRead(node);
+        return node.value;
+    }
+
+    public void put(K key, V value){
+        put(key, value, defaultTtlNanos / 1_000_000L);
+    }
+
+    // ttlMillis <= 0 means the entry never expires
+    public void put(K key, V value, long ttlMillis){
+        long weight = weigher.applyAsLong(key, value);
+        if(weight < 0 || weight > maxWeight){
+            throw new IllegalArgumentException("weight=" + weight);
+        }
+        long expiresAt = ttlMillis > 0 ? (System.nanoTime() + ttlMillis * 1_000_000L) | 1 : 0;
+        Node<K, V> node = new Node<>(key, value, weight, expiresAt);
+        Node<K, V> old = map.put(key, node);
+
+        evictionLock.lock();
+        try {
+            if(old != null){
+                unlink(old);
+            }
+            drainReadBuffers();
+            if(sketch != null){
+                sketch.increment(key);
+            }
+            // A racing put() for the same key may already have replaced this node
+            if(map.get(key) == node){
+                link(node, WINDOW);
+                evict();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public void remove(K key){
+        Node<K, V> node = map.remove(key);
+        if(node != null){
+            evictionLock.lock();
+            try {
+                unlink(node);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    public int size(){
+        return map.size();
+    }
+
+    public long weightedSize(){
+        evictionLock.lock();
+        try {
+            return weights[WINDOW] + weights[PROBATION] + weights[PROTECTED];
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public long hitCount(){
+        return hits.sum();
+    }
+
+    public long missCount(){
+        return misses.sum();
+    }
+
+    public long evictionCount(){
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString(){
+        long h = hits.sum(), m = misses.sum();
+        return String.format("%s size=%d hits=%d misses=%d hitRate=%.2f evictions=%d",
+                policy, map.size(), h, m, h + m == 0 ? 0.0 : (double) h / (h + m), evictions.sum());
+    }
+
+    private void recordRead(Node<K, V> node){
+        ReadBuffer buffer = readBuffers[(int) Thread.currentThread().getId() & (READ_BUFFERS - 1)];
+        long tail = (long) ReadBuffer.TAIL.getAndAdd(buffer, 1L);
+        buffer.slots.lazySet((int) (tail & (READ_BUFFER_SIZE - 1)), node);
+        if(tail - buffer.head >= DRAIN_THRESHOLD && evictionLock.tryLock()){
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drainReadBuffers(){
+        for(ReadBuffer buffer : readBuffers){
+            long tail = buffer.tail;
+            // The buffer is lossy: when readers lapped the drainer, old slots were overwritten
+            long from = Math.max(buffer.head, tail - READ_BUFFER_SIZE);
+            for(long i = from; i < tail; i++){
+                Node<K, V> node = (Node<K, V>) buffer.slots.getAndSet((int) (i & (READ_BUFFER_SIZE - 1)), null);
+                if(node != null){
+                    onAccess(node);
+                }
+            }
+            buffer.head = tail;
+        }
+    }
+
+    private void onAccess(Node<K, V> node){
+        if(node.queue < 0){
+            return;     // not linked yet, or already evicted
+        }
+        if(sketch != null){
+            sketch.increment(node.key);
+        }
+        if(policy == Policy.LRU || node.queue != PROBATION){
+            moveToTail(node, node.queue);
+            return;
+        }
+        // TinyLFU: a second hit in probation promotes to protected
+        unlink(node);
+        link(node, PROTECTED);
+        while (weights[PROTECTED] > protectedMax){
+            Node<K, V> demoted = heads[PROTECTED].next;
+            unlink(demoted);
+            link(demoted, PROBATION);
+        }
+    }
+
+    private void evict(){
+        if(policy == Policy.TINY_LFU){
+            while (weights[WINDOW] > windowMax){
+                Node<K, V> candidate = heads[WINDOW].next;
+                unlink(candidate);
+                link(candidate, PROBATION);
+            }
+        }
+        while (weights[WINDOW] + weights[PROBATION] + weights[PROTECTED] > maxWeight){
+            evictOne(chooseVictim());
+        }
+    }
+
+    private Node<K, V> chooseVictim(){
+        if(policy == Policy.LRU){
+            return heads[WINDOW].next;
+        }
+        Node<K, V> victim = heads[PROBATION].next;
+        Node<K, V> candidate = heads[PROBATION].prev;
+        if(victim == heads[PROBATION]){
+            return heads[PROTECTED].next != heads[PROTECTED] ? heads[PROTECTED].next : heads[WINDOW].next;
+        }
+        if(victim == candidate){
+            return victim;
+        }
+        // Admission: the newest probation entry replaces the oldest only if it is hotter
+        return sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate;
+    }
+
+    private void evictOne(Node<K, V> node){
+        unlink(node);
+        if(map.remove(node.key, node)){
+            evictions.increment();
+        }
+    }
+
+    private void link(Node<K, V> node, int queue){
+        Node<K, V> head = heads[queue];
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+        node.queue = queue;
+        weights[queue] += node.weight;
+    }
+
+    private void unlink(Node<K, V> node){
+        if(node.queue < 0){
+            return;
+        }
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = node.next = null;
+        weights[node.queue] -= node.weight;
+        node.queue = -1;
+    }
+
+    private void moveToTail(Node<K, V> node, int queue){
+        unlink(node);
+        link(node, queue);
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final long weight;
+        final long expiresAt;
+
+        // guarded by evictionLock; -1 = not in any queue
+        int queue = -1;
+        Node<K, V> prev, next;
+
+        Node(K key, V value, long weight, long expiresAt){
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // The tail counter is written by every reader of a stripe, so it gets 56 bytes of
+    // padding on each side. The pads live in a superclass and a subclass because the
+    // JVM lays out superclass fields first but may reorder fields within one class.
+    private static class ReadBufferLeftPad {
+        long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    private static class ReadBufferTail extends ReadBufferLeftPad {
+        volatile long tail;
+    }
+
+    private static class ReadBufferRightPad extends ReadBufferTail {
+        long p9, p10, p11, p12, p13, p14, p15;
+    }
+
+    private static final class ReadBuffer extends ReadBufferRightPad {
+        static final VarHandle TAIL;
+
+        static {
+            try {
+                TAIL = MethodHandles.lookup().findVarHandle(ReadBufferTail.class, "tail", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final AtomicReferenceArray<Object> slots = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        long head;      // guarded by evictionLock
+    }
+
+    // Count-min sketch with four 4-bit counters per key, halved after every
+    // 10 * capacity increments so old popularity fades out
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity){
+            int size = HashMapOpenAddressing.tableSizeFor(Math.max(8, capacity));
+            table = new long[size];
+            sampleSize = 10 * Math.max(capacity, 1);
+        }
+
+        private int indexOf(int h, int i){
+            long hash = (h + SEEDS[i]) * SEEDS[i];
+            hash += hash >>> 32;
+            return (int) hash & (table.length - 1);
+        }
+
+        private int offsetOf(int h, int i){
+            return ((h >>> (i * 8)) & 3) << 2 | i;   // 16 nibbles per long, pick one per hash function
+        }
+
+        int frequency(Object key){
+            int h = HashMapOpenAddressing.hash(key);
+            int min = 15;
+            for(int i = 0; i < 4; i++){
+                int shift = offsetOf(h, i) << 2;
+                min = Math.min(min, (int) ((table[indexOf(h, i)] >>> shift) & 0xF));
+            }
+            return min;
+        }
+
+        void increment(Object key){
+            int h = HashMapOpenAddressing.hash(key);
+            boolean added = false;
+            for(int i = 0; i < 4; i++){
+                int index = indexOf(h, i);
+                int shift = offsetOf(h, i) << 2;
+                if(((table[index] >>> shift) & 0xF) != 0xF){
+                    table[index] += 1L << shift;
+                    added = true;
+                }
+            }
+            if(added && ++additions == sampleSize){
+                for(int i = 0; i < table.length; i++){
+                    table[i] = (table[i] >>> 1) & RESET_MASK;
+                }
+                additions /= 2;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        BoundedCache<String, Integer> lru = new BoundedCache<>(3, Policy.LRU);
+        lru.put("Alice", 85);
+        lru.put("Bob", 90);
+        lru.put("Charlie", 78);
+        lru.get("Alice");
+        lru.put("David", 95);                    // evicts Bob, the least recently used
+        System.out.println(lru.get("Bob"));      // null
+        System.out.println(lru.get("Alice"));    // 85
+        System.out.println(lru);                 // LRU size=3 hits=2 misses=1 hitRate=0.67 evictions=1
+
+        // 50 hot keys read a few times per round, then a scan of 1000 one-hit wonders
+        for(Policy p : Policy.values()){
+            BoundedCache<Integer, String> cache = new BoundedCache<>(100, p);
+            for(int round = 0; round < 10; round++){
+                for(int read = 0; read < 3; read++){
+                    for(int hot = 0; hot < 50; hot++){
+                        if(cache.get(hot) == null){
+                            cache.put(hot, "hot" + hot);
+                        }
+                    }
+                }
+                for(int scan = 0; scan < 1000; scan++){
+                    cache.put(100_000 + round * 1000 + scan, "scan");
+                }
+            }
+            System.out.println(cache);
+        }
+        // LRU size=100 hits=1000 misses=500 hitRate=0.67 evictions=10400
+        // TINY_LFU size=100 hits=1441 misses=59 hitRate=0.96 evictions=9959
+
+        BoundedCache<String, String> ttl = new BoundedCache<>(10, Policy.LRU);
+        ttl.put("session", "token", 50);
+        System.out.println(ttl.get("session"));  // token
+        Thread.sleep(100);
+        System.out.println(ttl.get("session"));  // null
+    }
+}
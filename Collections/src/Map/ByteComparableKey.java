@@ -0,0 +1,192 @@
+package Map;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Key encoded once into bytes whose unsigned lexicographic order is the key order,
+// so a TreeMap / sort compares keys with Arrays.compareUnsigned (a vectorized
+// mismatch intrinsic) instead of calling a Comparator at every tree level.
+// Reverse order, like MyComp in TreeMapComparatorExample, is part of the encoding:
+// every byte is inverted, so no reversed comparator is needed either.
+//
+// String encoding, one UTF-16 char at a time (same order as String.compareTo):
+//   c <  0x80   ->  1 byte  c + 1                  (0x01 .. 0x80)
+//   c <  0x800  ->  2 bytes 110xxxxx 10xxxxxx      (UTF-8 form)
+//   otherwise   ->  3 bytes 1110xxxx 10xxxxxx 10xxxxxx
+// followed by a 0x00 terminator, which sorts "ab" before "abc" and, once inverted,
+// after it. Numbers are big-endian with the sign bit flipped.
+
+public final class ByteComparableKey implements Comparable<ByteComparableKey> {
+
+    private final byte[] bytes;
+    private final boolean string;
+    private final boolean descending;
+
+    private ByteComparableKey(byte[] bytes, boolean string, boolean descending){
+        this.bytes = bytes;
+        this.string = string;
+        this.descending = descending;
+    }
+
+    public static ByteComparableKey of(String s){
+        return new ByteComparableKey(encode(s, false), true, false);
+    }
+
+    public static ByteComparableKey descending(String s){
+        return new ByteComparableKey(encode(s, true), true, true);
+    }
+
+    public static ByteComparableKey of(long value){
+        return new ByteComparableKey(encode(value, false), false, false);
+    }
+
+    public static ByteComparableKey descending(long value){
+        return new ByteComparableKey(encode(value, true), false, true);
+    }
+
+    public byte[] bytes(){
+        return bytes;
+    }
+
+    public static byte[] encode(String s, boolean descending){
+        int length = 1;
+        for(int i = 0; i < s.length(); i++){
+            char c = s.charAt(i);
+            length += c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+        }
+        byte[] out = new byte[length];
+        int flip = descending ? 0xFF : 0;
+        int p = 0;
+        for(int i = 0; i < s.length(); i++){
+            char c = s.charAt(i);
+            if(c < 0x80){
+                out[p++] = (byte) ((c + 1) ^ flip);
+            } else if(c < 0x800){
+                out[p++] = (byte) ((0xC0 | (c >> 6)) ^ flip);
+                out[p++] = (byte) ((0x80 | (c & 0x3F)) ^ flip);
+            } else {
+                out[p++] = (byte) ((0xE0 | (c >> 12)) ^ flip);
+                out[p++] = (byte) ((0x80 | ((c >> 6) & 0x3F)) ^ flip);
+                out[p++] = (byte) ((0x80 | (c & 0x3F)) ^ flip);
+            }
+        }
+        out[p] = (byte) flip;   // terminator
+        return out;
+    }
+
+    public static byte[] encode(long value, boolean descending){
+        long v = value ^ Long.MIN_VALUE;
+        if(descending){
+            v = ~v;
+        }
+        byte[] out = new byte[8];
+        for(int i = 7; i >= 0; i--){
+            out[i] = (byte) v;
+            v >>>= 8;
+        }
+        return out;
+    }
+
+    public String decodeString(){
+        int flip = descending ? 0xFF : 0;
+        StringBuilder sb = new StringBuilder(bytes.length);
+        for(int p = 0; p < bytes.length - 1; ){
+            int b = (bytes[p++] ^ flip) & 0xFF;
+            if(b <= 0x80){
+                sb.append((char) (b - 1));
+            } else if(b < 0xE0){
+                int b2 = (bytes[p++] ^ flip) & 0x3F;
+                sb.append((char) (((b & 0x1F) << 6) | b2));
+            } else {
+                int b2 = (bytes[p++] ^ flip) & 0x3F;
+                int b3 = (bytes[p++] ^ flip) & 0x3F;
+                sb.append((char) (((b & 0x0F) << 12) | (b2 << 6) | b3));
+            }
+        }
+        return sb.toString();
+    }
+
+    public long decodeLong(){
+        long v = 0;
+        for(byte b : bytes){
+            v = (v << 8) | (b & 0xFF);
+        }
+        return (descending ? ~v : v) ^ Long.MIN_VALUE;
+    }
+
+    @Override
+    public int compareTo(ByteComparableKey other){
+        return Arrays.compareUnsigned(bytes, other.bytes);
+    }
+
+    @Override
+    public boolean equals(Object o){
+        return o instanceof ByteComparableKey && Arrays.equals(bytes, ((ByteComparableKey) o).bytes);
+    }
+
+    @Override
+    public int hashCode(){
+        return Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public String toString(){
+        return string ? decodeString() : String.valueOf(decodeLong());
+    }
+
+    // Sorts a String[] by encoding every element once and sorting the encodings.
+    // Each encoding remembers where its String came from, so the original instances are
+    // moved into place (stable, like Arrays.sort) instead of decoding new ones.
+    public static void sort(String[] a, boolean descending){
+        IndexedKey[] keys = new IndexedKey[a.length];
+        for(int i = 0; i < a.length; i++){
+            keys[i] = new IndexedKey(encode(a[i], descending), i);
+        }
+        Arrays.sort(keys, (x, y) -> Arrays.compareUnsigned(x.bytes, y.bytes));
+        String[] original = a.clone();
+        for(int i = 0; i < a.length; i++){
+            a[i] = original[keys[i].index];
+        }
+    }
+
+    private static final class IndexedKey {
+        final byte[] bytes;
+        final int index;
+
+        IndexedKey(byte[] bytes, int index){
+            this.bytes = bytes;
+            this.index = index;
+        }
+    }
+
+    public static void main(String[] args) {
+        // Same data as TreeMapComparatorExample, reverse order without a Comparator
+        TreeMap<ByteComparableKey, Integer> studentGrades = new TreeMap<>();
+
+        studentGrades.put(descending("Alice"), 85);
+        studentGrades.put(descending("Bob"), 90);
+        studentGrades.put(descending("Charlie"), 78);
+        studentGrades.put(descending("David"), 95);
+
+        System.out.println("Student Grades (Sorted by Name):");
+        for (Map.Entry<ByteComparableKey, Integer> entry : studentGrades.entrySet()) {
+            System.out.println("Name: " + entry.getKey() + ", Grade: " + entry.getValue());
+        }
+        System.out.println("Charlie's Grade: " + studentGrades.get(descending("Charlie")));
+
+        String[] s = {"Bob", "Bo", "Bobby", "Zorro", "A"};
+        sort(s, true);
+        System.out.println(Arrays.toString(s));
+    }
+}
+
+/* Output : ->
+Student Grades (Sorted by Name):
+Name: David, Grade: 95
+Name: Charlie, Grade: 78
+Name: Bob, Grade: 90
+Name: Alice, Grade: 85
+Charlie's Grade: 78
+[Zorro, Bobby, Bob, Bo, A]
+ */
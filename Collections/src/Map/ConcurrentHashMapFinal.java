@@ -0,0 +1,270 @@
+package Map;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+// Thread-safe version of HashMapFinal. The table is split into stripes (segments),
+// every stripe has its own ReentrantLock and its own bucket array, so writers only
+// block writers of the same stripe and a resize only rebuilds one stripe.
+// get()/containsKey() take no lock at all: bucket heads are read through an
+// AtomicReferenceArray, nodes are immutable except for the volatile value, and
+// writers publish a new head instead of unlinking nodes in place.
+// Like ConcurrentHashMap, null keys and values are rejected: a null from get() always
+// means "absent", and no caller value is mistaken for "any value" in replace().
+
+public class ConcurrentHashMapFinal<K, V> {
+
+    private static final int DEFAULT_STRIPES = 16;
+
+    private final Segment<K, V>[] segments;
+    private final int segmentShift;
+
+    public ConcurrentHashMapFinal(){
+        this(DEFAULT_STRIPES);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentHashMapFinal(int stripes){
+        int n = HashMapOpenAddressing.tableSizeFor(Math.max(2, stripes));
+        segments = new Segment[n];
+        for(int i = 0; i < n; i++){
+            segments[i] = new Segment<>();
+        }
+        segmentShift = 32 - Integer.numberOfTrailingZeros(n);
+    }
+
+    public V put(K key, V value){
+        Objects.requireNonNull(value, "value");
+        int h = HashMapOpenAddressing.hash(key);
+        return segmentFor(h).put(key, h, value, false);
+    }
+
+    public V putIfAbsent(K key, V value){
+        Objects.requireNonNull(value, "value");
+        int h = HashMapOpenAddressing.hash(key);
+        return segmentFor(h).put(key, h, value, true);
+    }
+
+    public V get(K key){
+        int h = HashMapOpenAddressing.hash(key);
+        Node<K, V> node = segmentFor(h).find(key, h);
+        return node == null ? null : node.value;
+    }
+
+    public boolean containsKey(K key){
+        int h = HashMapOpenAddressing.hash(key);
+        return segmentFor(h).find(key, h) != null;
+    }
+
+    public V remove(K key){
+        int h = HashMapOpenAddressing.hash(key);
+        return segmentFor(h).remove(key, h, null);
+    }
+
+    public boolean remove(K key, V value){
+        int h = HashMapOpenAddressing.hash(key);
+        return value != null && segmentFor(h).remove(key, h, value) != null;
+    }
+
+    public boolean replace(K key, V oldValue, V newValue){
+        Objects.requireNonNull(oldValue, "oldValue");
+        Objects.requireNonNull(newValue, "newValue");
+        int h = HashMapOpenAddressing.hash(key);
+        return segmentFor(h).replace(key, h, oldValue, newValue) != null;
+    }
+
+    public V replace(K key, V value){
+        Objects.requireNonNull(value, "value");
+        int h = HashMapOpenAddressing.hash(key);
+        return segmentFor(h).replace(key, h, null, value);
+    }
+
+    public int size(){
+        int size = 0;
+        for(Segment<K, V> segment : segments){
+            size += segment.count;
+        }
+        return size;
+    }
+
+    private Segment<K, V> segmentFor(int h){
+        // High bits choose the stripe, low bits choose the bucket inside it
+        return segments[h >>> segmentShift];
+    }
+
+    // Lock-free like get(): sees every entry present for the whole call, and may or may
+    // not see concurrent changes
+    public void forEach(BiConsumer<? super K, ? super V> action){
+        for(Segment<K, V> segment : segments){
+            AtomicReferenceArray<Node<K, V>> table = segment.table;
+            for(int i = 0; i < table.length(); i++){
+                for(Node<K, V> n = table.get(i); n != null; n = n.next){
+                    action.accept(n.key, n.value);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder("{");
+        for(Segment<K, V> segment : segments){
+            AtomicReferenceArray<Node<K, V>> table = segment.table;
+            for(int i = 0; i < table.length(); i++){
+                for(Node<K, V> n = table.get(i); n != null; n = n.next){
+                    if(sb.length() > 1) sb.append(", ");
+                    sb.append(n.key).append('=').append(n.value);
+                }
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final int hash;
+        volatile V value;
+        final Node<K, V> next;
+
+        Node(K key, int hash, V value, Node<K, V> next){
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    private static final class Segment<K, V> extends ReentrantLock {
+
+        private static final long serialVersionUID = 1L;
+
+        private float lf = 0.75f;
+
+        volatile AtomicReferenceArray<Node<K, V>> table = new AtomicReferenceArray<>(8);
+        volatile int count;
+
+        Node<K, V> find(K key, int h){
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            for(Node<K, V> n = tab.get(h & (tab.length() - 1)); n != null; n = n.next){
+                if(n.hash == h && n.key.equals(key)){
+                    return n;
+                }
+            }
+            return null;
+        }
+
+        V put(K key, int h, V value, boolean onlyIfAbsent){
+            lock();
+            try {
+                Node<K, V> existing = find(key, h);
+                if(existing != null){
+                    V old = existing.value;
+                    if(!onlyIfAbsent){
+                        existing.value = value;
+                    }
+                    return old;
+                }
+
+                if(count + 1 > table.length() * lf){
+                    reHash();
+                }
+                AtomicReferenceArray<Node<K, V>> tab = table;
+                int i = h & (tab.length() - 1);
+                tab.set(i, new Node<>(key, h, value, tab.get(i)));
+                count++;
+                return null;
+            } finally {
+                unlock();
+            }
+        }
+
+        // expected == null replaces whatever is mapped; callers never pass a null value
+        V replace(K key, int h, V expected, V value){
+            lock();
+            try {
+                Node<K, V> existing = find(key, h);
+                if(existing == null || (expected != null && !expected.equals(existing.value))){
+                    return null;
+                }
+                V old = existing.value;
+                existing.value = value;
+                return old;
+            } finally {
+                unlock();
+            }
+        }
+
+        V remove(K key, int h, V expected){
+            lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> tab = table;
+                int i = h & (tab.length() - 1);
+                Node<K, V> head = tab.get(i);
+
+                Node<K, V> target = head;
+                while (target != null && !(target.hash == h && target.key.equals(key))){
+                    target = target.next;
+                }
+                if(target == null || (expected != null && !expected.equals(target.value))){
+                    return null;
+                }
+
+                // Readers may be walking this chain, so copy the nodes in front of the
+                // target instead of unlinking it in place
+                Node<K, V> newHead = target.next;
+                for(Node<K, V> n = head; n != target; n = n.next){
+                    newHead = new Node<>(n.key, n.hash, n.value, newHead);
+                }
+                tab.set(i, newHead);
+                count--;
+                return target.value;
+            } finally {
+                unlock();
+            }
+        }
+
+        private void reHash(){
+            AtomicReferenceArray<Node<K, V>> old = table;
+            AtomicReferenceArray<Node<K, V>> tab = new AtomicReferenceArray<>(old.length() * 2);
+            int mask = tab.length() - 1;
+
+            for(int j = 0; j < old.length(); j++){
+                for(Node<K, V> n = old.get(j); n != null; n = n.next){
+                    int i = n.hash & mask;
+                    tab.set(i, new Node<>(n.key, n.hash, n.value, tab.get(i)));
+                }
+            }
+            table = tab;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ConcurrentHashMapFinal<Integer, String> m = new ConcurrentHashMapFinal<>();
+        m.put(101, "Ravi");
+        m.put(102, "Raj");
+        m.putIfAbsent(101, "Siva");
+        System.out.println(m.get(101));                       // Ravi
+        System.out.println(m.remove(102, "Ravi"));            // false
+        System.out.println(m.replace(101, "Ravi", "Shiva"));  // true
+        System.out.println(m.remove(102, "Raj"));             // true
+        System.out.println(m);                                // {101=Shiva}
+
+        ConcurrentHashMapFinal<Integer, Integer> counts = new ConcurrentHashMapFinal<>();
+        Thread[] threads = new Thread[4];
+        for(int t = 0; t < threads.length; t++){
+            int base = t * 10000;
+            threads[t] = new Thread(() -> {
+                for(int i = 0; i < 10000; i++){
+                    counts.put(base + i, i);
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread t : threads){
+            t.join();
+        }
+        System.out.println(counts.size());                    // 40000
+    }
+}
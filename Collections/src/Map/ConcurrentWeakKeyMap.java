@@ -0,0 +1,233 @@
+package Map;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Thread-safe counterpart of WeakHashMap. Keys are held through WeakReferences that
+// are registered with a ReferenceQueue; once the GC clears a key its entry is removed
+// by draining that queue. Instead of scanning on every access the way WeakHashMap
+// expunges stale entries, each operation drains at most DRAIN_BATCH references, so the
+// cleanup cost is amortized and never takes a global lock.
+//
+// Keys are compared by identity (like IdentityHashMap), which is what attaching
+// metadata to objects needs and what makes a cleared reference still findable.
+// Every operation probes with a plain LookupKey first; a WeakReference is only
+// created and registered with the queue when put() or computeIfAbsent() adds a new
+// key. Null keys are rejected, as in ConcurrentHashMap.
+//
+// With softValues = true the values are held through SoftReferences as well, and an
+// entry whose value was collected reads as absent.
+
+public class ConcurrentWeakKeyMap<K, V> {
+
+    static final int DRAIN_BATCH = 16;
+
+    private final ConcurrentHashMap<Object, Object> map = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    private final boolean softValues;
+    private final LongAdder purged = new LongAdder();
+
+    public ConcurrentWeakKeyMap(){
+        this(false);
+    }
+
+    public ConcurrentWeakKeyMap(boolean softValues){
+        this.softValues = softValues;
+    }
+
+    public V get(K key){
+        drainQueue(DRAIN_BATCH);
+        return unwrap(map.get(new LookupKey(key)));
+    }
+
+    public V put(K key, V value){
+        Objects.requireNonNull(key, "key");
+        drainQueue(DRAIN_BATCH);
+        LookupKey probe = new LookupKey(key);
+        while(true){
+            Object current = map.get(probe);
+            if(current != null){
+                // Existing key: swap the value in place, keeping the stored WeakKey
+                if(map.replace(probe, current, rewrap(current, value))){
+                    return unwrap(current);
+                }
+                continue;
+            }
+            WeakKey<K> weakKey = new WeakKey<>(key, queue);
+            if(map.putIfAbsent(weakKey, wrap(weakKey, value)) == null){
+                return null;
+            }
+            // Lost a race with another put of the same key, retry as a replace
+        }
+    }
+
+    public V remove(K key){
+        drainQueue(DRAIN_BATCH);
+        return unwrap(map.remove(new LookupKey(key)));
+    }
+
+    public boolean containsKey(K key){
+        return get(key) != null;
+    }
+
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction){
+        Objects.requireNonNull(key, "key");
+        drainQueue(DRAIN_BATCH);
+        V present = unwrap(map.get(new LookupKey(key)));
+        if(present != null){
+            return present;
+        }
+        WeakKey<K> weakKey = new WeakKey<>(key, queue);
+        Object stored = map.compute(weakKey, (k, current) -> {
+            if(unwrap(current) != null){
+                return current;
+            }
+            V value = mappingFunction.apply(key);
+            return value == null ? null : wrap(weakKey, value);
+        });
+        return unwrap(stored);
+    }
+
+    // Approximate: may still count entries whose key was collected but not yet drained
+    public int size(){
+        drainQueue(DRAIN_BATCH);
+        return map.size();
+    }
+
+    public long purgedCount(){
+        return purged.sum();
+    }
+
+    // Drains everything currently on the queue, e.g. from a housekeeping thread
+    public void expungeStaleEntries(){
+        drainQueue(Integer.MAX_VALUE);
+    }
+
+    private void drainQueue(int max){
+        Reference<?> ref;
+        for(int i = 0; i < max && (ref = queue.poll()) != null; i++){
+            if(ref instanceof WeakKey){
+                if(map.remove(ref) != null){
+                    purged.increment();
+                }
+            } else {
+                // A soft value was cleared: drop its entry if it is still mapped
+                ValueRef<?> valueRef = (ValueRef<?>) ref;
+                if(map.remove(valueRef.key, valueRef)){
+                    purged.increment();
+                }
+            }
+        }
+    }
+
+    private Object wrap(WeakKey<?> key, V value){
+        return softValues ? new ValueRef<>(key, value, queue) : value;
+    }
+
+    // New value for an entry that is already mapped; a soft value reuses its entry's WeakKey
+    private Object rewrap(Object current, V value){
+        return current instanceof ValueRef ? wrap(((ValueRef<?>) current).key, value) : value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V unwrap(Object stored){
+        if(stored instanceof ValueRef){
+            return ((ValueRef<V>) stored).get();
+        }
+        return (V) stored;
+    }
+
+    // The hash is captured up front so an entry stays removable after its referent is cleared
+    private static final class WeakKey<K> extends WeakReference<K> {
+        private final int hash;
+
+        WeakKey(K key, ReferenceQueue<Object> queue){
+            super(key, queue);
+            hash = System.identityHashCode(key);
+        }
+
+        @Override
+        public int hashCode(){
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if(this == o){
+                return true;
+            }
+            Object referent = get();
+            if(o instanceof LookupKey){
+                return referent != null && referent == ((LookupKey) o).referent;
+            }
+            if(!(o instanceof WeakKey)){
+                return false;
+            }
+            return referent != null && referent == ((WeakKey<?>) o).get();
+        }
+    }
+
+    // Strong, queue-less probe for get() and remove(); equal to the WeakKey of the same object
+    private static final class LookupKey {
+        final Object referent;
+        final int hash;
+
+        LookupKey(Object key){
+            referent = Objects.requireNonNull(key, "key");
+            hash = System.identityHashCode(key);
+        }
+
+        @Override
+        public int hashCode(){
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if(o instanceof LookupKey){
+                return referent == ((LookupKey) o).referent;
+            }
+            return o instanceof WeakKey && referent == ((WeakKey<?>) o).get();
+        }
+    }
+
+    private static final class ValueRef<T> extends SoftReference<T> {
+        // Only needed to find the entry again when the value is purged
+        final WeakKey<?> key;
+
+        ValueRef(WeakKey<?> key, T value, ReferenceQueue<Object> queue){
+            super(value, queue);
+            this.key = key;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        class Temp {
+            public String toString(){
+                return "Temp";
+            }
+        }
+
+        ConcurrentWeakKeyMap<Temp, String> m = new ConcurrentWeakKeyMap<>();
+        Temp t = new Temp();
+        m.put(t, "ashok");
+        System.out.println(m.get(t));                                  // ashok
+        System.out.println(m.computeIfAbsent(t, k -> "ravi"));         // ashok
+
+        for(int i = 0; i < 1000; i++){
+            m.computeIfAbsent(new Temp(), k -> "short lived");
+        }
+        t = null;   // Remove the strong reference to Temp
+
+        System.gc();
+        Thread.sleep(100);
+        m.expungeStaleEntries();
+        System.out.println(m.size() + " left, " + m.purgedCount() + " purged");   // 0 left, 1001 purged (GC dependent)
+    }
+}
@@ -1,82 +1,393 @@
 package Map;
 
-import javax.swing.text.html.parser.Entity;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
 
 public class HashMapFinal<K, V> {
 
-    ArrayList<LinkedList<Entity>> list;
+    // Buckets are created on first insert; a slot holds null (empty bucket), a
+    // LinkedList of entries or a TreeBin
+    Object[] list;
 
     private int size =0;
     private float lf = 0.5f;
 
+    // putAll() inputs at least this large are split across threads by bucket range
+    static final int PARALLEL_PUT_THRESHOLD = 1 << 16;
+
+    // Incremental rehashing: instead of rebuilding the whole table inside one put(),
+    // growth only allocates the new (empty) slot array and every later operation moves
+    // MIGRATE_STEP buckets from oldList into list, looking at no more than MIGRATE_SCAN
+    // slots. Until oldList is drained, lookups check both tables. Growth that comes due
+    // while a migration is still running waits for it instead of draining it.
+    private static final int MIGRATE_STEP = 4;
+    private static final int MIGRATE_SCAN = 64;
+    private final boolean incremental;
+    private Object[] oldList;
+    private int migrateIndex;
+
+    // Tree bins: a bucket that grows past TREEIFY_THRESHOLD entries is moved out of its
+    // LinkedList into a TreeBin that takes its place in the slot, which orders entries
+    // by hashCode() and then by compareTo() when the keys are Comparable.
+    // It is turned back into a list when it shrinks to UNTREEIFY_THRESHOLD.
+    static final int TREEIFY_THRESHOLD = 8;
+    static final int UNTREEIFY_THRESHOLD = 6;
+
+    // null until enableStats() is called, so the default map pays only a null check
+    private HashMapStats stats;
+    private int probes;
+    private long migrateNanos;
+
     public HashMapFinal(){
-        list = new ArrayList<>();
-        for (int i=0;i<10;i++){
-            list.add(new LinkedList<>());
+        this(false);
+    }
+
+    public HashMapFinal(boolean incrementalRehash){
+        this(0, 0.5f, incrementalRehash);
+    }
+
+    public HashMapFinal(int expectedSize, float loadFactor){
+        this(expectedSize, loadFactor, false);
+    }
+
+    // Presized: enough buckets that expectedSize entries never trigger a reHash()
+    public HashMapFinal(int expectedSize, float loadFactor, boolean incrementalRehash){
+        if(expectedSize < 0 || !(loadFactor > 0)){
+            throw new IllegalArgumentException("expectedSize=" + expectedSize + ", loadFactor=" + loadFactor);
         }
+        incremental = incrementalRehash;
+        lf = loadFactor;
+        list = newTable(bucketsFor(expectedSize));
     }
 
-    public  void put(K key, V value){
-        int hash = Math.abs(key.hashCode() % list.size());
+    private int bucketsFor(int expectedSize){
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(10L, (long) Math.ceil(expectedSize / lf) + 1));
+    }
 
-        LinkedList<Entity> entities = list.get(hash);
+    private Object[] newTable(int buckets){
+        return new Object[buckets];
+    }
 
-        for(Entity entity: entities){
-            if(entity.key.equals(key)){
-                entity.value=value;
-                return;
-            }
+    // Entries of a slot, whichever form it has; empty for a null slot
+    @SuppressWarnings("unchecked")
+    private List<Entity> entriesOf(Object slot){
+        if(slot == null){
+            return List.of();
+        }
+        return slot instanceof HashMapFinal.TreeBin ? ((TreeBin) slot).entries() : (LinkedList<Entity>) slot;
+    }
+
+    public  void put(K key, V value){
+        migrateStep();
+
+        Entity existing = find(key, false);
+        if(existing != null){
+            existing.value = value;
+            return;
         }
 
-        if((float)(size)/ list.size()>lf){
+        if((float)(size)/ list.length>lf){
             reHash();
         }
 
-        entities.add(new Entity(key, value));
+        insert(list, new Entity(key, value));
         size++;
 
     }
 
 
     private void reHash(){
-        System.out.println("We are now rehashing!");
+        if(incremental){
+            startIncrementalRehash();
+            return;
+        }
+        resize(list.length * 2);
+    }
+
+    private void resize(int buckets){
+        long start = stats != null ? System.nanoTime() : 0;
+
+        Object[] old = list;
+        list = newTable(buckets);
+
+        for(Object slot : old){
+            for(Entity entry : entriesOf(slot)){
+                insert(list, entry);
+            }
+        }
+        if(stats != null){
+            stats.recordRehash(size, old.length, list.length, System.nanoTime() - start);
+        }
+    }
+
+    private void startIncrementalRehash(){
+        if(oldList != null){
+            return;     // the running migration ends within a few operations; grow after it
+        }
+        oldList = list;
+        migrateIndex = 0;
+        list = newTable(oldList.length * 2);
+    }
+
+    private void finishMigration(){
+        while (oldList != null){
+            migrateStep();
+        }
+    }
+
+    // Grows the table once, straight to the size needed for expectedSize entries
+    public void ensureCapacity(int expectedSize){
+        finishMigration();
+        int buckets = bucketsFor(expectedSize);
+        if(buckets > list.length){
+            resize(buckets);
+        }
+    }
+
+    public void putAll(Map<? extends K, ? extends V> map){
+        List<Entity> entries = new ArrayList<>(map.size());
+        for(Map.Entry<? extends K, ? extends V> e : map.entrySet()){
+            entries.add(new Entity(e.getKey(), e.getValue()));
+        }
+        bulkPut(entries);
+    }
+
+    public void putAll(K[] keys, V[] values){
+        if(keys.length != values.length){
+            throw new IllegalArgumentException("keys.length=" + keys.length + ", values.length=" + values.length);
+        }
+        List<Entity> entries = new ArrayList<>(keys.length);
+        for(int i = 0; i < keys.length; i++){
+            entries.add(new Entity(keys[i], values[i]));
+        }
+        bulkPut(entries);
+    }
+
+    // Sizes the table once for size + entries.size() and then inserts without any
+    // per-entry load-factor check. Large inputs are partitioned by bucket range, so
+    // every thread owns its buckets and the partition keeps input order (last wins).
+    private void bulkPut(List<Entity> entries){
+        ensureCapacity(size + entries.size());
+
+        if(entries.size() < PARALLEL_PUT_THRESHOLD){
+            size += bulkInsert(entries);
+            return;
+        }
 
-        ArrayList<LinkedList<Entity>> old = list;
-        list = new ArrayList<>();
+        int parts = Math.min(Runtime.getRuntime().availableProcessors(), entries.size() / (PARALLEL_PUT_THRESHOLD / 4));
+        int buckets = list.length;
+        List<List<Entity>> partitions = new ArrayList<>(parts);
+        for(int p = 0; p < parts; p++){
+            partitions.add(new ArrayList<>(entries.size() / parts + 16));
+        }
+        for(Entity e : entries){
+            partitions.get((int) ((long) indexFor(list, e.key) * parts / buckets)).add(e);
+        }
 
-        size =0;
+        size += IntStream.range(0, parts).parallel()
+                .map(p -> bulkInsert(partitions.get(p)))
+                .sum();
+    }
 
-        for(int i=0;i<old.size()* 2;i++){
-            list.add(new LinkedList<>());
+    // Only touches the slots of the given entries' buckets. Returns the number of new keys.
+    private int bulkInsert(List<Entity> entries){
+        int added = 0;
+        for(Entity e : entries){
+            Entity existing = findIn(list, e.key, false);
+            if(existing != null){
+                existing.value = e.value;
+            } else {
+                insert(list, e);
+                added++;
+            }
         }
+        return added;
+    }
 
-        for(LinkedList<Entity> entries :old){
-            for(Entity entry : entries){
-                put(entry.key, entry.value);
+    private void migrateStep(){
+        if(oldList == null){
+            return;
+        }
+        long start = stats != null ? System.nanoTime() : 0;
+        int end = (int) Math.min(oldList.length, (long) migrateIndex + MIGRATE_SCAN);
+        for(int moved = 0; moved < MIGRATE_STEP && migrateIndex < end; migrateIndex++){
+            Object slot = oldList[migrateIndex];
+            if(slot == null){
+                continue;
             }
+            oldList[migrateIndex] = null;
+            for(Entity entry : entriesOf(slot)){
+                insert(list, entry);
+            }
+            moved++;
+        }
+        if(stats != null){
+            migrateNanos += System.nanoTime() - start;
+        }
+        if(migrateIndex == oldList.length){
+            if(stats != null){
+                stats.recordRehash(size, oldList.length, list.length, migrateNanos);
+                migrateNanos = 0;
+            }
+            oldList = null;
         }
     }
 
-    public V get(K key){
-        int hash = Math.abs(key.hashCode()% list.size());
-        LinkedList<Entity> entities = list.get(hash);
+    public boolean isRehashing(){
+        return oldList != null;
+    }
 
-        for(Entity entity : entities){
+    private int indexFor(Object[] table, Object key){
+        return Math.abs(key.hashCode() % table.length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void insert(Object[] table, Entity entity){
+        int index = indexFor(table, entity.key);
+        Object slot = table[index];
+        if(slot instanceof HashMapFinal.TreeBin){
+            ((TreeBin) slot).add(entity);
+            return;
+        }
+
+        LinkedList<Entity> entities = (LinkedList<Entity>) slot;
+        if(entities == null){
+            entities = new LinkedList<>();
+            table[index] = entities;
+        }
+        entities.add(entity);
+        if(entities.size() > TREEIFY_THRESHOLD){
+            treeify(table, index, entities);
+        }
+    }
+
+    private void treeify(Object[] table, int index, LinkedList<Entity> entities){
+        TreeBin bin = new TreeBin();
+        for(Entity e : entities){
+            bin.add(e);
+        }
+        table[index] = bin;
+    }
+
+    @SuppressWarnings("unchecked")
+    // countProbes is only set by get() with stats on; the parallel putAll() path must
+    // never touch the shared probes field
+    private Entity findIn(Object[] table, K key, boolean countProbes){
+        Object slot = table[indexFor(table, key)];
+        if(slot == null){
+            return null;    // empty, or already migrated to the new table
+        }
+        if(slot instanceof HashMapFinal.TreeBin){
+            if(countProbes) probes++;
+            return ((TreeBin) slot).find(key);
+        }
+        for(Entity entity : (LinkedList<Entity>) slot){
+            if(countProbes) probes++;
             if(entity.key.equals(key)){
-                return entity.value;
+                return entity;
             }
         }
         return null;
     }
 
+    private Entity find(K key, boolean countProbes){
+        Entity entity = findIn(list, key, countProbes);
+        if(entity == null && oldList != null){
+            entity = findIn(oldList, key, countProbes);
+        }
+        return entity;
+    }
+
+    public V get(K key){
+        migrateStep();
+        probes = 0;
+        Entity entity = find(key, stats != null);
+        if(stats != null){
+            stats.recordGet(probes);
+        }
+        return entity == null ? null : entity.value;
+    }
+
+    public void enableStats(){
+        if(stats == null){
+            stats = new HashMapStats();
+        }
+    }
+
+    // Refreshes the table-derived numbers (histogram, load factor, bytes) and returns
+    // the live statistics object, or null when enableStats() was never called
+    public HashMapStats stats(){
+        if(stats == null){
+            return null;
+        }
+        long[] bytes = {16 + 4L * list.length};           // slot array
+        stats.bucketHistogram = histogram(list, 0, bytes);
+        if(oldList != null){
+            // Slots below migrateIndex have moved already; only the rest still belongs to oldList
+            bytes[0] += 16 + 4L * oldList.length;
+            stats.migratingHistogram = histogram(oldList, migrateIndex, bytes);
+        } else {
+            stats.migratingHistogram = new int[0];
+        }
+        stats.bytesRetained = bytes[0] + 24L * size;        // plus the Entity objects
+        stats.size = size;
+        stats.buckets = list.length;
+        return stats;
+    }
+
+    // Bucket lengths of table[from..], adding their estimated size to bytes[0]
+    @SuppressWarnings("unchecked")
+    private int[] histogram(Object[] table, int from, long[] bytes){
+        int[] histogram = new int[TREEIFY_THRESHOLD + 2];
+        for(int i = from; i < table.length; i++){
+            Object slot = table[i];
+            if(slot == null){
+                histogram[0]++;
+            } else if(slot instanceof HashMapFinal.TreeBin){
+                TreeBin bin = (TreeBin) slot;
+                histogram[histogram.length - 1]++;
+                bytes[0] += 48 + 40L * bin.byHash.size() + 40L * bin.size;
+            } else {
+                int length = ((LinkedList<?>) slot).size();
+                histogram[Math.min(length, histogram.length - 1)]++;
+                bytes[0] += 32 + 24L * length;             // LinkedList + one node per entry
+            }
+        }
+        return histogram;
+    }
+
     public void remove(K key){
-        int hash = Math.abs(key.hashCode()% list.size());
-        LinkedList<Entity> entities = list.get(hash);
+        migrateStep();
+        if(removeFrom(list, key) || (oldList != null && removeFrom(oldList, key))){
+            size--;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean removeFrom(Object[] table, K key){
+        int index = indexFor(table, key);
+        Object slot = table[index];
+        if(slot == null){
+            return false;
+        }
+
+        if(slot instanceof HashMapFinal.TreeBin){
+            TreeBin bin = (TreeBin) slot;
+            if(!bin.remove(key)){
+                return false;
+            }
+            if(bin.size <= UNTREEIFY_THRESHOLD){
+                table[index] = new LinkedList<>(bin.entries());
+            }
+            return true;
+        }
 
+        LinkedList<Entity> entities = (LinkedList<Entity>) slot;
         Entity target = null;
 
         for(Entity entity : entities){
@@ -85,14 +396,32 @@ public class HashMapFinal<K, V> {
                 break;
             }
         }
-        entities.remove(target);
-        size--;
+        return target != null && entities.remove(target);
     }
 
     public boolean containsKey(K key){
         return get(key) != null;
     }
 
+    public int size(){
+        return size;
+    }
+
+    public void forEach(BiConsumer<? super K, ? super V> action){
+        forEachIn(list, action);
+        if(oldList != null){
+            forEachIn(oldList, action);
+        }
+    }
+
+    private void forEachIn(Object[] table, BiConsumer<? super K, ? super V> action){
+        for(Object slot : table){
+            for(Entity entity : entriesOf(slot)){
+                action.accept(entity.key, entity.value);
+            }
+        }
+    }
+
 
 
     private class Entity{
@@ -107,7 +436,93 @@ public class HashMapFinal<K, V> {
 
     }
 
+    // Entries of one treeified bucket, grouped by full hashCode(). Keys sharing a hash
+    // are kept in a TreeMap when they are Comparable and of the same class, otherwise
+    // in a short list, so lookups are O(log n) plus the size of that group. A key of
+    // another class is never handed to the TreeMap, it simply is not in that group.
+    private class TreeBin{
+        TreeMap<Integer, Object> byHash = new TreeMap<>();
+        int size;
+
+        @SuppressWarnings("unchecked")
+        Entity find(K key){
+            Object group = byHash.get(key.hashCode());
+            if(group instanceof TreeMap){
+                TreeMap<K, Entity> sorted = (TreeMap<K, Entity>) group;
+                return sorted.firstKey().getClass() == key.getClass() ? sorted.get(key) : null;
+            }
+            if(group != null){
+                for(Entity entity : (LinkedList<Entity>) group){
+                    if(entity.key.equals(key)){
+                        return entity;
+                    }
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        void add(Entity entity){
+            int h = entity.key.hashCode();
+            Object group = byHash.get(h);
+            if(group == null){
+                if(entity.key instanceof Comparable){
+                    TreeMap<K, Entity> sorted = new TreeMap<>();
+                    sorted.put(entity.key, entity);
+                    byHash.put(h, sorted);
+                } else {
+                    LinkedList<Entity> chain = new LinkedList<>();
+                    chain.add(entity);
+                    byHash.put(h, chain);
+                }
+            } else if(group instanceof TreeMap){
+                TreeMap<K, Entity> sorted = (TreeMap<K, Entity>) group;
+                if(sorted.firstKey().getClass() == entity.key.getClass()){
+                    sorted.put(entity.key, entity);
+                } else {
+                    LinkedList<Entity> chain = new LinkedList<>(sorted.values());
+                    chain.add(entity);
+                    byHash.put(h, chain);
+                }
+            } else {
+                ((LinkedList<Entity>) group).add(entity);
+            }
+            size++;
+        }
+
+        @SuppressWarnings("unchecked")
+        boolean remove(K key){
+            int h = key.hashCode();
+            Object group = byHash.get(h);
+            boolean removed = false;
+            if(group instanceof TreeMap){
+                TreeMap<K, Entity> sorted = (TreeMap<K, Entity>) group;
+                removed = sorted.firstKey().getClass() == key.getClass() && sorted.remove(key) != null;
+                if(sorted.isEmpty()) byHash.remove(h);
+            } else if(group != null){
+                LinkedList<Entity> chain = (LinkedList<Entity>) group;
+                removed = chain.removeIf(entity -> entity.key.equals(key));
+                if(chain.isEmpty()) byHash.remove(h);
+            }
+            if(removed){
+                size--;
+            }
+            return removed;
+        }
 
+        @SuppressWarnings("unchecked")
+        List<Entity> entries(){
+            List<Entity> all = new ArrayList<>(size);
+            for(Object group : byHash.values()){
+                if(group instanceof TreeMap){
+                    all.addAll(((TreeMap<K, Entity>) group).values());
+                } else {
+                    all.addAll((LinkedList<Entity>) group);
+                }
+            }
+            return all;
+        }
+    }
 
 }
 
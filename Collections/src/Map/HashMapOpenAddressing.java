@@ -0,0 +1,187 @@
+package Map;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+// Same put/get/remove/containsKey API as HashMapFinal, but entries live in two flat
+// parallel arrays (keys[] / values[]) instead of ArrayList<LinkedList<Entity>>.
+// Collisions are resolved with linear probing and remove() uses backward-shift
+// deletion, so there are no tombstones and no node object per entry.
+
+public class HashMapOpenAddressing<K, V> {
+
+    private Object[] keys;
+    private Object[] values;
+
+    private int size = 0;
+    private float lf = 0.5f;
+    private int mask;
+    private int threshold;
+
+    public HashMapOpenAddressing(){
+        this(16);
+    }
+
+    public HashMapOpenAddressing(int capacity){
+        int cap = tableSizeFor(Math.max(2, capacity));
+        keys = new Object[cap];
+        values = new Object[cap];
+        mask = cap - 1;
+        threshold = (int) (cap * lf);
+    }
+
+    public void put(K key, V value){
+        int i = hash(key) & mask;
+
+        while (keys[i] != null){
+            if(keys[i].equals(key)){
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        size++;
+
+        if(size > threshold){
+            reHash();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(K key){
+        int i = indexOf(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    public void remove(K key){
+        int i = indexOf(key);
+        if(i < 0){
+            return;
+        }
+
+        // Backward-shift deletion: pull every following entry of the probe run one
+        // step back unless its home slot lies (cyclically) after the hole.
+        int hole = i;
+        int next = (hole + 1) & mask;
+        while (keys[next] != null){
+            int home = hash(keys[next]) & mask;
+            if(((next - home) & mask) >= ((next - hole) & mask)){
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        size--;
+    }
+
+    public boolean containsKey(K key){
+        return indexOf(key) >= 0;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    private int indexOf(Object key){
+        int i = hash(key) & mask;
+        while (keys[i] != null){
+            if(keys[i].equals(key)){
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void reHash(){
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        int cap = oldKeys.length * 2;
+        keys = new Object[cap];
+        values = new Object[cap];
+        mask = cap - 1;
+        threshold = (int) (cap * lf);
+
+        for(int j = 0; j < oldKeys.length; j++){
+            Object k = oldKeys[j];
+            if(k != null){
+                int i = hash(k) & mask;
+                while (keys[i] != null){
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    // Spread the high bits down, probing uses the low bits of a power-of-two table
+    static int hash(Object key){
+        return hash(key.hashCode());
+    }
+
+    // Same spreading for an already computed hashCode(), without boxing it
+    static int hash(int h){
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int tableSizeFor(int n){
+        int cap = Integer.highestOneBit(n - 1) << 1;
+        return cap <= 0 ? 1 << 30 : cap;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action){
+        for(int i = 0; i < keys.length; i++){
+            if(keys[i] != null){
+                action.accept((K) keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder("{");
+        for(int i = 0; i < keys.length; i++){
+            if(keys[i] != null){
+                if(sb.length() > 1) sb.append(", ");
+                sb.append(keys[i]).append('=').append(values[i]);
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    public static void main(String[] args){
+        HashMapOpenAddressing<String, Integer> map = new HashMapOpenAddressing<>();
+
+        map.put("Mango", 10);
+        map.put("Apple", 20);
+        map.put("Litchi", 30);
+        map.put("Apple", 25);
+
+        System.out.println(map.get("Apple"));          // 25
+        System.out.println(map.containsKey("Mango"));  // true
+
+        map.remove("Mango");
+        System.out.println(map.containsKey("Mango"));  // false
+        System.out.println(map.size());                // 2
+
+        HashMapOpenAddressing<Integer, Integer> big = new HashMapOpenAddressing<>();
+        for(int i = 0; i < 100000; i++){
+            big.put(i, i * 2);
+        }
+        for(int i = 0; i < 100000; i += 2){
+            big.remove(i);
+        }
+        System.out.println(big.size() + " " + big.get(99999) + " " + big.get(99998));  // 50000 199998 null
+        System.out.println(Arrays.asList(big.get(1), big.get(3)));                       // [2, 6]
+    }
+}
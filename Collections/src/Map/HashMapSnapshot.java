@@ -0,0 +1,288 @@
+package Map;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Compact binary snapshot of a HashMapFinal (or a String -> String MapUsingHash) that is
+// reopened with FileChannel.map(), so get() runs directly against the mapped file and
+// nothing is deserialized up front.
+//
+// File layout (big-endian):
+//   header : int MAGIC, int size, int slots (power of two), int arenaOffset
+//   index  : slots x { int hash, int recordOffset }   recordOffset 0 = empty slot
+//   arena  : size  x { int keyLength, key bytes, int valueLength, value bytes }
+//            valueLength -1 = null value, with no bytes
+//
+// The index is open-addressed with linear probing on key.hashCode(), so the key type
+// must have a hashCode() that is stable across JVM runs (String, Integer, ...).
+// A snapshot file is limited to 2 GB, the size of a single MappedByteBuffer.
+
+public class HashMapSnapshot<K, V> {
+
+    static final int MAGIC = 0x484D5331;    // "HMS1"
+    static final int HEADER_BYTES = 16;
+
+    public interface Codec<T> {
+        byte[] encode(T value);
+        T decode(ByteBuffer buffer, int offset, int length);
+
+        // Whether buffer[offset, offset + length) is the encoding of value. Codecs that
+        // can compare without encoding override this to keep get() allocation-free.
+        default boolean matches(T value, ByteBuffer buffer, int offset, int length){
+            byte[] bytes = encode(value);
+            if(bytes.length != length){
+                return false;
+            }
+            for(int i = 0; i < length; i++){
+                if(buffer.get(offset + i) != bytes[i]){
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    public static final Codec<String> STRING = new Codec<String>() {
+        @Override
+        public byte[] encode(String value){
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer, int offset, int length){
+            byte[] bytes = new byte[length];
+            buffer.get(offset, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        // Encodes value to UTF-8 one char at a time (as getBytes does, '?' for a lone
+        // surrogate) and compares each byte with the mapped one
+        @Override
+        public boolean matches(String value, ByteBuffer buffer, int offset, int length){
+            int p = offset, end = offset + length;
+            for(int i = 0; i < value.length(); i++){
+                char ch = value.charAt(i);
+                int c = ch;
+                if(Character.isSurrogate(ch)){
+                    if(Character.isHighSurrogate(ch) && i + 1 < value.length()
+                            && Character.isLowSurrogate(value.charAt(i + 1))){
+                        c = Character.toCodePoint(ch, value.charAt(++i));
+                    } else {
+                        c = '?';
+                    }
+                }
+                if(c < 0x80){
+                    if(p >= end || buffer.get(p++) != (byte) c) return false;
+                } else if(c < 0x800){
+                    if(p + 2 > end
+                            || buffer.get(p++) != (byte) (0xC0 | c >> 6)
+                            || buffer.get(p++) != (byte) (0x80 | c & 0x3F)) return false;
+                } else if(c < 0x10000){
+                    if(p + 3 > end
+                            || buffer.get(p++) != (byte) (0xE0 | c >> 12)
+                            || buffer.get(p++) != (byte) (0x80 | c >> 6 & 0x3F)
+                            || buffer.get(p++) != (byte) (0x80 | c & 0x3F)) return false;
+                } else {
+                    if(p + 4 > end
+                            || buffer.get(p++) != (byte) (0xF0 | c >> 18)
+                            || buffer.get(p++) != (byte) (0x80 | c >> 12 & 0x3F)
+                            || buffer.get(p++) != (byte) (0x80 | c >> 6 & 0x3F)
+                            || buffer.get(p++) != (byte) (0x80 | c & 0x3F)) return false;
+                }
+            }
+            return p == end;
+        }
+    };
+
+    private final MappedByteBuffer buffer;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final int size;
+    private final int mask;
+
+    private HashMapSnapshot(MappedByteBuffer buffer, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        if(buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC){
+            throw new IOException("Not a HashMapSnapshot file");
+        }
+        this.buffer = buffer;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.size = buffer.getInt(4);
+        this.mask = buffer.getInt(8) - 1;
+    }
+
+    public static <K, V> void write(HashMapFinal<K, V> map, Path file, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        List<byte[]> records = new ArrayList<>(map.size() * 2);
+        int[] hashes = new int[map.size()];
+        map.forEach((k, v) -> {
+            hashes[records.size() / 2] = k.hashCode();
+            records.add(keyCodec.encode(k));
+            records.add(v == null ? null : valueCodec.encode(v));
+        });
+        write(file, hashes, records);
+    }
+
+    public static void write(MapUsingHash map, Path file) throws IOException {
+        List<byte[]> records = new ArrayList<>(map.size() * 2);
+        int[] hashes = new int[map.size()];
+        map.forEach((k, v) -> {
+            hashes[records.size() / 2] = k.hashCode();
+            records.add(STRING.encode(k));
+            records.add(v == null ? null : STRING.encode(v));
+        });
+        write(file, hashes, records);
+    }
+
+    private static void write(Path file, int[] hashes, List<byte[]> records) throws IOException {
+        int size = hashes.length;
+        int slots = HashMapOpenAddressing.tableSizeFor(Math.max(2, size * 2));
+        int mask = slots - 1;
+        long arenaOffset = HEADER_BYTES + 8L * slots;
+
+        int[] index = new int[slots * 2];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            ByteBuffer out = ByteBuffer.allocateDirect(1 << 16);
+            long position = arenaOffset;
+            channel.position(arenaOffset);
+
+            for(int r = 0; r < size; r++){
+                byte[] key = records.get(2 * r);
+                byte[] value = records.get(2 * r + 1);
+                if(position + 8 + key.length + (value == null ? 0 : value.length) > Integer.MAX_VALUE){
+                    throw new IOException("Snapshot larger than 2 GB");
+                }
+
+                int slot = HashMapOpenAddressing.hash(hashes[r]) & mask;
+                while (index[2 * slot + 1] != 0){
+                    slot = (slot + 1) & mask;
+                }
+                index[2 * slot] = hashes[r];
+                index[2 * slot + 1] = (int) position;
+
+                position += writeBytes(channel, out, key);
+                position += writeBytes(channel, out, value);
+            }
+            flush(channel, out);
+
+            ByteBuffer head = ByteBuffer.allocate((int) arenaOffset);
+            head.putInt(MAGIC).putInt(size).putInt(slots).putInt((int) arenaOffset);
+            for(int i : index){
+                head.putInt(i);
+            }
+            head.flip();
+            channel.position(0);
+            while (head.hasRemaining()){
+                channel.write(head);
+            }
+        }
+    }
+
+    private static int writeBytes(FileChannel channel, ByteBuffer out, byte[] bytes) throws IOException {
+        if(out.remaining() < 4){
+            flush(channel, out);
+        }
+        if(bytes == null){
+            out.putInt(-1);
+            return 4;
+        }
+        out.putInt(bytes.length);
+        int written = 0;
+        while (written < bytes.length){
+            if(!out.hasRemaining()){
+                flush(channel, out);
+            }
+            int n = Math.min(out.remaining(), bytes.length - written);
+            out.put(bytes, written, n);
+            written += n;
+        }
+        return 4 + bytes.length;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()){
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    public static <K, V> HashMapSnapshot<K, V> open(Path file, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE){
+                throw new IOException("Snapshot larger than 2 GB");
+            }
+            // The mapping stays valid after the channel is closed
+            return new HashMapSnapshot<>(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), keyCodec, valueCodec);
+        }
+    }
+
+    public static HashMapSnapshot<String, String> open(Path file) throws IOException {
+        return open(file, STRING, STRING);
+    }
+
+    public V get(K key){
+        int offset = find(key);
+        if(offset == 0){
+            return null;
+        }
+        int keyLength = buffer.getInt(offset);
+        int valueOffset = offset + 4 + keyLength;
+        int valueLength = buffer.getInt(valueOffset);
+        return valueLength < 0 ? null : valueCodec.decode(buffer, valueOffset + 4, valueLength);
+    }
+
+    public boolean containsKey(K key){
+        return find(key) != 0;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    // Returns the arena offset of the record for key, or 0 if it is not present.
+    // Keys are compared in place against the mapped bytes.
+    private int find(K key){
+        int h = key.hashCode();
+        int slot = HashMapOpenAddressing.hash(h) & mask;
+        while (true){
+            int entry = HEADER_BYTES + 8 * slot;
+            int offset = buffer.getInt(entry + 4);
+            if(offset == 0){
+                return 0;
+            }
+            if(buffer.getInt(entry) == h && keyCodec.matches(key, buffer, offset + 4, buffer.getInt(offset))){
+                return offset;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        HashMapFinal<String, String> map = new HashMapFinal<>(3, 0.5f);
+        map.put("Mango","King of fruits");
+        map.put("Apple","An apple a day keeps doctor away !!!");
+        map.put("Litchi","Pride of Bihar");
+
+        Path file = Files.createTempFile("fruits", ".hms");
+        try {
+            write(map, file, STRING, STRING);
+
+            HashMapSnapshot<String, String> snapshot = open(file);
+            System.out.println(snapshot.size());                 // 3
+            System.out.println(snapshot.get("Litchi"));          // Pride of Bihar
+            System.out.println(snapshot.containsKey("Banana"));  // false
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
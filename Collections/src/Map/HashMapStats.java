@@ -0,0 +1,163 @@
+package Map;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Opt-in counters for HashMapFinal, switched on with HashMapFinal.enableStats().
+// Probe length is the number of entries compared by one get() (a tree bin counts as 1).
+// Each rehash is also committed as a JFR event, and publish() commits a snapshot
+// event, so the numbers show up in a flight recording without attaching a profiler.
+
+public class HashMapStats {
+
+    long gets;
+    long totalProbes;
+    int maxProbe;
+
+    int rehashCount;
+    long rehashNanos;
+
+    // One {System.currentTimeMillis(), size, buckets} sample per rehash
+    final List<long[]> loadFactorSamples = new ArrayList<>();
+
+    int[] bucketHistogram = new int[0];
+    int[] migratingHistogram = new int[0];
+    long bytesRetained;
+    int size;
+    int buckets;
+
+    void recordGet(int probes){
+        gets++;
+        totalProbes += probes;
+        if(probes > maxProbe){
+            maxProbe = probes;
+        }
+    }
+
+    void recordRehash(int size, int oldBuckets, int newBuckets, long nanos){
+        rehashCount++;
+        rehashNanos += nanos;
+        loadFactorSamples.add(new long[]{System.currentTimeMillis(), size, newBuckets});
+
+        RehashEvent event = new RehashEvent();
+        event.size = size;
+        event.oldBuckets = oldBuckets;
+        event.newBuckets = newBuckets;
+        event.nanos = nanos;
+        event.commit();
+    }
+
+    public long getGets(){
+        return gets;
+    }
+
+    public double getAverageProbeLength(){
+        return gets == 0 ? 0 : (double) totalProbes / gets;
+    }
+
+    public int getMaxProbeLength(){
+        return maxProbe;
+    }
+
+    public int getRehashCount(){
+        return rehashCount;
+    }
+
+    public long getRehashNanos(){
+        return rehashNanos;
+    }
+
+    public List<long[]> getLoadFactorSamples(){
+        return loadFactorSamples;
+    }
+
+    // bucketHistogram[n] = number of buckets holding n entries, the last slot counts
+    // every bucket of that length or longer
+    public int[] getBucketHistogram(){
+        return bucketHistogram;
+    }
+
+    // Same for the buckets an incremental rehash has not moved yet (empty when none runs),
+    // kept apart so that each histogram adds up to its own table's bucket count
+    public int[] getMigratingHistogram(){
+        return migratingHistogram;
+    }
+
+    public double getLoadFactor(){
+        return buckets == 0 ? 0 : (double) size / buckets;
+    }
+
+    // Estimated from typical 64-bit compressed-oops object sizes, not measured
+    public long getBytesRetained(){
+        return bytesRetained;
+    }
+
+    public void publish(){
+        SnapshotEvent event = new SnapshotEvent();
+        event.size = size;
+        event.buckets = buckets;
+        event.averageProbeLength = getAverageProbeLength();
+        event.maxProbeLength = maxProbe;
+        event.rehashCount = rehashCount;
+        event.bytesRetained = bytesRetained;
+        event.commit();
+    }
+
+    @Override
+    public String toString(){
+        String text = String.format("size=%d buckets=%d loadFactor=%.2f gets=%d avgProbe=%.2f maxProbe=%d "
+                        + "rehashes=%d rehashMs=%.3f bytes~%d histogram={%s}",
+                size, buckets, getLoadFactor(), gets, getAverageProbeLength(), maxProbe,
+                rehashCount, rehashNanos / 1e6, bytesRetained, format(bucketHistogram));
+        return migratingHistogram.length == 0 ? text : text + " migrating={" + format(migratingHistogram) + "}";
+    }
+
+    private static String format(int[] counts){
+        StringBuilder histogram = new StringBuilder();
+        for(int i = 0; i < counts.length; i++){
+            if(counts[i] > 0){
+                if(histogram.length() > 0) histogram.append(", ");
+                histogram.append(i == counts.length - 1 ? i + "+" : String.valueOf(i))
+                         .append('=').append(counts[i]);
+            }
+        }
+        return histogram.toString();
+    }
+
+    @Name("Map.HashMapFinal.Rehash")
+    @Label("HashMapFinal Rehash")
+    @Category("Collections")
+    static class RehashEvent extends Event {
+        @Label("Size")
+        int size;
+        @Label("Old Buckets")
+        int oldBuckets;
+        @Label("New Buckets")
+        int newBuckets;
+        @Label("Rehash Nanos")
+        long nanos;
+    }
+
+    @Name("Map.HashMapFinal.Snapshot")
+    @Label("HashMapFinal Statistics")
+    @Category("Collections")
+    static class SnapshotEvent extends Event {
+        @Label("Size")
+        int size;
+        @Label("Buckets")
+        int buckets;
+        @Label("Average Probe Length")
+        double averageProbeLength;
+        @Label("Max Probe Length")
+        int maxProbeLength;
+        @Label("Rehash Count")
+        int rehashCount;
+        @Label("Bytes Retained")
+        long bytesRetained;
+    }
+}
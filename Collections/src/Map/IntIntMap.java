@@ -0,0 +1,159 @@
+package Map;
+
+// int -> int version of IntObjectMap: keys and values are both int[] so nothing is
+// boxed or allocated per put once the table is sized. get() on a missing key
+// returns 0, use getOrDefault()/containsKey() when 0 is a meaningful value.
+
+public class IntIntMap {
+
+    private int[] keys;
+    private int[] values;
+
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    private int size = 0;
+    private float lf = 0.5f;
+    private int mask;
+    private int threshold;
+
+    public IntIntMap(){
+        this(16);
+    }
+
+    public IntIntMap(int expectedSize){
+        int cap = HashMapOpenAddressing.tableSizeFor(Math.max(2, (int) (expectedSize / lf) + 1));
+        keys = new int[cap];
+        values = new int[cap];
+        mask = cap - 1;
+        threshold = (int) (cap * lf);
+    }
+
+    public void put(int key, int value){
+        if(key == 0){
+            if(!hasZeroKey){
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+
+        int i = IntObjectMap.hash(key) & mask;
+        while (keys[i] != 0){
+            if(keys[i] == key){
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        size++;
+
+        if(size > threshold){
+            reHash();
+        }
+    }
+
+    public int get(int key){
+        return getOrDefault(key, 0);
+    }
+
+    public int getOrDefault(int key, int defaultValue){
+        if(key == 0){
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int i = indexOf(key);
+        return i < 0 ? defaultValue : values[i];
+    }
+
+    public void remove(int key){
+        if(key == 0){
+            if(hasZeroKey){
+                hasZeroKey = false;
+                zeroValue = 0;
+                size--;
+            }
+            return;
+        }
+
+        int i = indexOf(key);
+        if(i < 0){
+            return;
+        }
+
+        int hole = i;
+        int next = (hole + 1) & mask;
+        while (keys[next] != 0){
+            int home = IntObjectMap.hash(keys[next]) & mask;
+            if(((next - home) & mask) >= ((next - hole) & mask)){
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = 0;
+        values[hole] = 0;
+        size--;
+    }
+
+    public boolean containsKey(int key){
+        return key == 0 ? hasZeroKey : indexOf(key) >= 0;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    private int indexOf(int key){
+        int i = IntObjectMap.hash(key) & mask;
+        while (keys[i] != 0){
+            if(keys[i] == key){
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void reHash(){
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+
+        int cap = oldKeys.length * 2;
+        keys = new int[cap];
+        values = new int[cap];
+        mask = cap - 1;
+        threshold = (int) (cap * lf);
+
+        for(int j = 0; j < oldKeys.length; j++){
+            int k = oldKeys[j];
+            if(k != 0){
+                int i = IntObjectMap.hash(k) & mask;
+                while (keys[i] != 0){
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    public static void main(String[] args){
+        IntIntMap salary = new IntIntMap();
+
+        salary.put(101, 5000);
+        salary.put(110, 7000);
+        salary.put(0, 100);
+
+        System.out.println(salary.get(110));               // 7000
+        System.out.println(salary.get(0));                 // 100
+        System.out.println(salary.getOrDefault(999, -1));  // -1
+        salary.remove(101);
+        System.out.println(salary.containsKey(101));       // false
+        System.out.println(salary.size());                 // 2
+    }
+}
@@ -0,0 +1,63 @@
+package Map;
+
+import java.util.HashMap;
+import java.util.Random;
+
+// Rough put/get timing of IntObjectMap / IntIntMap against HashMapFinal<Integer,V>
+// and java.util.HashMap<Integer,V>. Plain System.nanoTime() loop with a few warm-up
+// rounds, so the numbers are only good for comparing the maps with each other.
+// Every map is presized for N keys, so none of them is timed while growing.
+
+public class IntMapBenchmark {
+
+    static final int N = 1_000_000;
+    static final int ROUNDS = 5;
+
+    public static void main(String[] args){
+        int[] ids = new int[N];
+        Random random = new Random(42);
+        for(int i = 0; i < N; i++){
+            ids[i] = random.nextInt();
+        }
+
+        for(int round = 1; round <= ROUNDS; round++){
+            boolean print = round == ROUNDS;
+            long sink = 0;
+
+            long start = System.nanoTime();
+            IntIntMap intInt = new IntIntMap(N);
+            for(int id : ids) intInt.put(id, id);
+            for(int id : ids) sink += intInt.get(id);
+            report(print, "IntIntMap", start);
+
+            start = System.nanoTime();
+            IntObjectMap<String> intObj = new IntObjectMap<>(N);
+            for(int id : ids) intObj.put(id, "v");
+            for(int id : ids) sink += intObj.get(id).length();
+            report(print, "IntObjectMap", start);
+
+            start = System.nanoTime();
+            HashMap<Integer, String> hashMap = new HashMap<>((int) (N / 0.75f) + 1);
+            for(int id : ids) hashMap.put(id, "v");
+            for(int id : ids) sink += hashMap.get(id).length();
+            report(print, "java.util.HashMap", start);
+
+            start = System.nanoTime();
+            HashMapFinal<Integer, String> hashMapFinal = new HashMapFinal<>(N, 0.5f, true);
+            for(int id : ids) hashMapFinal.put(id, "v");
+            for(int id : ids) sink += hashMapFinal.get(id).length();
+            report(print, "HashMapFinal", start);
+
+            if(print){
+                System.out.println("checksum " + sink);
+            }
+        }
+    }
+
+    private static void report(boolean print, String name, long start){
+        if(print){
+            long nanos = System.nanoTime() - start;
+            System.out.printf("%-20s %6d ms  (%d ns per put+get)%n", name, nanos / 1_000_000, nanos / N);
+        }
+    }
+}
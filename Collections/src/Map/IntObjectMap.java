@@ -0,0 +1,166 @@
+package Map;
+
+// int-keyed version of HashMapFinal: keys are kept in an int[] so put/get never box
+// and never call hashCode()/equals(). Open addressing with linear probing and
+// backward-shift deletion, like HashMapOpenAddressing. Key 0 marks a free slot in
+// the table, so the entry for key 0 (if any) is stored on the side.
+
+public class IntObjectMap<V> {
+
+    private int[] keys;
+    private Object[] values;
+
+    private boolean hasZeroKey;
+    private Object zeroValue;
+
+    private int size = 0;
+    private float lf = 0.5f;
+    private int mask;
+    private int threshold;
+
+    public IntObjectMap(){
+        this(16);
+    }
+
+    public IntObjectMap(int expectedSize){
+        int cap = HashMapOpenAddressing.tableSizeFor(Math.max(2, (int) (expectedSize / lf) + 1));
+        keys = new int[cap];
+        values = new Object[cap];
+        mask = cap - 1;
+        threshold = (int) (cap * lf);
+    }
+
+    public void put(int key, V value){
+        if(key == 0){
+            if(!hasZeroKey){
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+
+        int i = hash(key) & mask;
+        while (keys[i] != 0){
+            if(keys[i] == key){
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        size++;
+
+        if(size > threshold){
+            reHash();
+        }
+    }
+
+    public V get(int key){
+        return getOrDefault(key, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(int key, V defaultValue){
+        if(key == 0){
+            return hasZeroKey ? (V) zeroValue : defaultValue;
+        }
+        int i = indexOf(key);
+        return i < 0 ? defaultValue : (V) values[i];
+    }
+
+    public void remove(int key){
+        if(key == 0){
+            if(hasZeroKey){
+                hasZeroKey = false;
+                zeroValue = null;
+                size--;
+            }
+            return;
+        }
+
+        int i = indexOf(key);
+        if(i < 0){
+            return;
+        }
+
+        int hole = i;
+        int next = (hole + 1) & mask;
+        while (keys[next] != 0){
+            int home = hash(keys[next]) & mask;
+            if(((next - home) & mask) >= ((next - hole) & mask)){
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+        size--;
+    }
+
+    public boolean containsKey(int key){
+        return key == 0 ? hasZeroKey : indexOf(key) >= 0;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    private int indexOf(int key){
+        int i = hash(key) & mask;
+        while (keys[i] != 0){
+            if(keys[i] == key){
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void reHash(){
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        int cap = oldKeys.length * 2;
+        keys = new int[cap];
+        values = new Object[cap];
+        mask = cap - 1;
+        threshold = (int) (cap * lf);
+
+        for(int j = 0; j < oldKeys.length; j++){
+            int k = oldKeys[j];
+            if(k != 0){
+                int i = hash(k) & mask;
+                while (keys[i] != 0){
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    static int hash(int key){
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    public static void main(String[] args){
+        IntObjectMap<String> empMap = new IntObjectMap<>();
+
+        empMap.put(101,"Ravi");
+        empMap.put(110,"Avi");
+        empMap.put(111,"Savi");
+        empMap.put(183,"Sabhi");
+
+        System.out.println(empMap.get(110));                      // Avi
+        System.out.println(empMap.getOrDefault(999, "Unknown"));  // Unknown
+        empMap.remove(110);
+        System.out.println(empMap.containsKey(110));              // false
+        System.out.println(empMap.size());                        // 3
+    }
+}
@@ -0,0 +1,305 @@
+package Map;
+
+import java.util.Arrays;
+
+// Interval index for the "which range does x fall into" lookups that NavigableMapDemo
+// does with floorEntry()/ceilingEntry(). floorEntry only finds the one range that
+// starts closest below x, so it misses matches as soon as ranges overlap.
+//
+// Intervals [start, end] (inclusive, long bounds) are kept sorted by start in flat
+// parallel arrays, indexed by a centered interval tree stored in arrays as well. Every
+// node has a center point and owns the intervals that contain it, listed twice: by
+// start ascending and by end descending. Intervals entirely left of the center go to
+// the left subtree, those entirely right of it to the right one. The center is the
+// median endpoint of the node's intervals, so the tree is O(log n) deep.
+//
+// stab(x) walks one root-to-leaf path. At each node it reads the start-ordered list
+// while start <= x (x left of the center) or the end-ordered list while end >= x (x
+// right of it), so every interval it reads is a match: O(log n + k) for k matches.
+// overlapping(from, to) is stab(from) plus the intervals starting in (from, to], which
+// form one run of the start-sorted arrays found by binary search, again O(log n + k).
+// Matches are reported to a visitor in no particular order, and queries allocate nothing.
+//
+// add() marks the index dirty and the next query rebuilds it, so an index that is
+// still being added to is not thread-safe, not even for concurrent queries.
+// freeze() builds it eagerly and rejects further add() calls; from then on queries
+// only read, and a frozen index can be shared once it is safely published.
+
+public class IntervalIndex<V> {
+
+    @FunctionalInterface
+    public interface Visitor<V> {
+        void visit(long start, long end, V value);
+    }
+
+    private long[] starts = new long[16];
+    private long[] ends = new long[16];
+    private Object[] values = new Object[16];
+    private int size;
+    private boolean built = true;
+    private boolean frozen;
+
+    // Centered tree: node arrays, plus the node lists byStart[lo[n], hi[n]) and
+    // byEnd[lo[n], hi[n]) holding positions into starts/ends/values
+    private long[] center = new long[0];
+    private int[] left = new int[0];
+    private int[] right = new int[0];
+    private int[] lo = new int[0];
+    private int[] hi = new int[0];
+    private int[] byStart = new int[0];
+    private int[] byEnd = new int[0];
+    private int root = -1;
+    private int nodes;
+
+    // Bulk load from input already sorted by start: no sort before building the tree
+    public static <V> IntervalIndex<V> fromSorted(long[] starts, long[] ends, V[] values){
+        if(starts.length != ends.length || starts.length != values.length){
+            throw new IllegalArgumentException("arrays must have the same length");
+        }
+        IntervalIndex<V> index = new IntervalIndex<>();
+        index.starts = starts.clone();
+        index.ends = ends.clone();
+        index.values = values.clone();
+        index.size = starts.length;
+        for(int i = 0; i < index.size; i++){
+            if(ends[i] < starts[i] || (i > 0 && starts[i] < starts[i - 1])){
+                throw new IllegalArgumentException("interval " + i + " is empty or out of order");
+            }
+        }
+        index.buildTree();
+        return index;
+    }
+
+    public void add(long start, long end, V value){
+        if(frozen){
+            throw new IllegalStateException("IntervalIndex is frozen");
+        }
+        if(end < start){
+            throw new IllegalArgumentException("[" + start + ", " + end + "]");
+        }
+        if(size == starts.length){
+            int capacity = Math.max(16, size * 2);      // fromSorted() may leave length 0
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        values[size] = value;
+        size++;
+        built = false;
+    }
+
+    // Builds the tree now, packs the arrays to their exact size and rejects further add() calls
+    public IntervalIndex<V> freeze(){
+        prepare();
+        starts = Arrays.copyOf(starts, size);
+        ends = Arrays.copyOf(ends, size);
+        values = Arrays.copyOf(values, size);
+        frozen = true;
+        return this;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    // Every interval containing point; returns the number of matches
+    @SuppressWarnings("unchecked")
+    public int stab(long point, Visitor<? super V> visitor){
+        prepare();
+        int found = 0;
+        for(int node = root; node >= 0; ){
+            if(point < center[node]){
+                for(int k = lo[node]; k < hi[node] && starts[byStart[k]] <= point; k++){
+                    found++;
+                    if(visitor != null){
+                        int i = byStart[k];
+                        visitor.visit(starts[i], ends[i], (V) values[i]);
+                    }
+                }
+                node = left[node];
+            } else {
+                for(int k = lo[node]; k < hi[node] && ends[byEnd[k]] >= point; k++){
+                    found++;
+                    if(visitor != null){
+                        int i = byEnd[k];
+                        visitor.visit(starts[i], ends[i], (V) values[i]);
+                    }
+                }
+                node = point == center[node] ? -1 : right[node];
+            }
+        }
+        return found;
+    }
+
+    // Every interval that overlaps [from, to]; returns the number of matches
+    @SuppressWarnings("unchecked")
+    public int overlapping(long from, long to, Visitor<? super V> visitor){
+        if(to < from){
+            throw new IllegalArgumentException("[" + from + ", " + to + "]");
+        }
+        int found = stab(from, visitor);
+        // The rest start inside (from, to] and cannot have been stabbed by from
+        int last = firstAbove(starts, size, to);
+        for(int i = firstAbove(starts, size, from); i < last; i++){
+            found++;
+            if(visitor != null){
+                visitor.visit(starts[i], ends[i], (V) values[i]);
+            }
+        }
+        return found;
+    }
+
+    public int countStabbing(long point){
+        return stab(point, null);
+    }
+
+    private void prepare(){
+        if(built){
+            return;
+        }
+        int[] position = sortedPositions(starts, size);
+        long[] s = new long[starts.length];
+        long[] e = new long[ends.length];
+        Object[] v = new Object[values.length];
+        for(int i = 0; i < size; i++){
+            s[position[i]] = starts[i];
+            e[position[i]] = ends[i];
+            v[position[i]] = values[i];
+        }
+        starts = s;
+        ends = e;
+        values = v;
+        buildTree();
+    }
+
+    private void buildTree(){
+        center = new long[size];
+        left = new int[size];
+        right = new int[size];
+        lo = new int[size];
+        hi = new int[size];
+        byStart = new int[size];
+        byEnd = new int[size];
+        nodes = 0;
+        int[] all = new int[size];
+        for(int i = 0; i < size; i++){
+            all[i] = i;
+        }
+        root = build(all, size, 0);
+        built = true;
+    }
+
+    // items holds count positions in start order; fills byStart/byEnd from offset on
+    private int build(int[] items, int count, int offset){
+        if(count == 0){
+            return -1;
+        }
+        long[] points = new long[2 * count];
+        for(int k = 0; k < count; k++){
+            points[2 * k] = starts[items[k]];
+            points[2 * k + 1] = ends[items[k]];
+        }
+        Arrays.sort(points);
+        long c = points[count];             // median endpoint, contained by its own interval
+
+        int[] leftItems = new int[count];
+        int[] rightItems = new int[count];
+        int nl = 0, nr = 0, n = offset;
+        for(int k = 0; k < count; k++){
+            int i = items[k];
+            if(ends[i] < c) leftItems[nl++] = i;
+            else if(starts[i] > c) rightItems[nr++] = i;
+            else byStart[n++] = i;
+        }
+
+        int node = nodes++;
+        center[node] = c;
+        lo[node] = offset;
+        hi[node] = n;
+
+        // Same intervals by end descending: ~end sorts ascending in that order
+        long[] keys = new long[n - offset];
+        for(int k = 0; k < keys.length; k++){
+            keys[k] = ~ends[byStart[offset + k]];
+        }
+        int[] position = sortedPositions(keys, keys.length);
+        for(int k = 0; k < keys.length; k++){
+            byEnd[offset + position[k]] = byStart[offset + k];
+        }
+
+        left[node] = build(leftItems, nl, n);
+        right[node] = build(rightItems, nr, n + nl);
+        return node;
+    }
+
+    // Where each of keys[0, n) lands in a stable ascending sort, without boxing indexes:
+    // a primitive sort of a copy gives each key value its first slot, and equal keys
+    // then fill their run in input order
+    private static int[] sortedPositions(long[] keys, int n){
+        long[] sortedKeys = Arrays.copyOf(keys, n);
+        Arrays.sort(sortedKeys);
+        int[] taken = new int[n];
+        int[] position = new int[n];
+        for(int i = 0; i < n; i++){
+            int first = lowerBound(sortedKeys, n, keys[i]);
+            position[i] = first + taken[first]++;
+        }
+        return position;
+    }
+
+    private static int lowerBound(long[] a, int n, long key){
+        int lo = 0, hi = n;
+        while (lo < hi){
+            int mid = (lo + hi) >>> 1;
+            if(a[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int firstAbove(long[] a, int n, long key){
+        int lo = 0, hi = n;
+        while (lo < hi){
+            int mid = (lo + hi) >>> 1;
+            if(a[mid] <= key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    public static void main(String[] args){
+
+        // Overlapping price bands: a floorEntry() lookup would only ever return one of them
+        IntervalIndex<String> bands = new IntervalIndex<>();
+        bands.add(0, 499, "Budget");
+        bands.add(300, 999, "Mid range");
+        bands.add(900, 4999, "Premium");
+        bands.add(450, 550, "Festival offer");
+        bands.freeze();
+
+        System.out.println("Bands for price 480:");
+        bands.stab(480, (start, end, name) -> System.out.println("  " + name + " [" + start + ", " + end + "]"));
+
+        System.out.println("Bands overlapping 950..1200: " + bands.overlapping(950, 1200, null));
+        System.out.println("Bands for price 6000: " + bands.countStabbing(6000));
+
+        // Bulk load of sorted, non-overlapping IP ranges (as unsigned ints in a long)
+        long[] starts = {0x0A000000L, 0xAC100000L, 0xC0A80000L};
+        long[] ends   = {0x0AFFFFFFL, 0xAC1FFFFFL, 0xC0A8FFFFL};
+        String[] nets = {"10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16"};
+        IntervalIndex<String> ipIndex = IntervalIndex.fromSorted(starts, ends, nets).freeze();
+        ipIndex.stab(0xC0A80101L, (start, end, net) -> System.out.println("192.168.1.1 is in " + net));
+    }
+}
+
+/* Output : ->
+Bands for price 480:
+  Mid range [300, 999]
+  Festival offer [450, 550]
+  Budget [0, 499]
+Bands overlapping 950..1200: 2
+Bands for price 6000: 0
+192.168.1.1 is in 192.168.0.0/16
+ */
@@ -0,0 +1,303 @@
+package Map;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Ordered map over primitive long keys with the NavigableMap lookups from
+// NavigableMapDemo (floor / ceiling / higher / lower) and range scans through a
+// reusable Cursor, so floor/ceiling queries and scans neither box a key nor allocate.
+//
+// It is a skip list: writers are serialized by one lock, readers take no lock and
+// follow volatile links (AtomicReferenceArray), so reads keep running while a write
+// is in progress. A new node is fully built before it is linked in, and a removed
+// node keeps its forward links, so a reader standing on it can still move on.
+
+public class LongSkipListMap<V> {
+
+    private static final int MAX_LEVEL = 32;
+
+    private final Node<V> head = new Node<>(Long.MIN_VALUE, null, MAX_LEVEL);
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile int level = 1;
+    private volatile int size;
+
+    @SuppressWarnings("unchecked")
+    private static <V> Node<V>[] newNodeArray(int length){
+        return (Node<V>[]) new Node<?>[length];
+    }
+
+    public V put(long key, V value){
+        writeLock.lock();
+        try {
+            Node<V>[] update = newNodeArray(MAX_LEVEL);
+            Node<V> x = head;
+            for(int i = level - 1; i >= 0; i--){
+                Node<V> next;
+                while ((next = x.next.get(i)) != null && next.key < key){
+                    x = next;
+                }
+                update[i] = x;
+            }
+            Node<V> found = x.next.get(0);
+            if(found != null && found.key == key){
+                V old = found.value;
+                found.value = value;
+                return old;
+            }
+
+            int nodeLevel = randomLevel();
+            if(nodeLevel > level){
+                for(int i = level; i < nodeLevel; i++){
+                    update[i] = head;
+                }
+                level = nodeLevel;
+            }
+            Node<V> node = new Node<>(key, value, nodeLevel);
+            for(int i = 0; i < nodeLevel; i++){
+                node.next.set(i, update[i].next.get(i));
+            }
+            // Publish bottom-up: once visible at level 0 the node is in the map
+            for(int i = 0; i < nodeLevel; i++){
+                update[i].next.set(i, node);
+            }
+            size++;
+            return null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public V remove(long key){
+        writeLock.lock();
+        try {
+            Node<V> x = head;
+            Node<V> target = null;
+            for(int i = level - 1; i >= 0; i--){
+                Node<V> next;
+                while ((next = x.next.get(i)) != null && next.key < key){
+                    x = next;
+                }
+                if(next != null && next.key == key){
+                    target = next;
+                    x.next.set(i, next.next.get(i));
+                }
+            }
+            if(target == null){
+                return null;
+            }
+            target.deleted = true;
+            size--;
+            return target.value;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public V get(long key){
+        Node<V> n = ceilingNode(key);
+        return n != null && n.key == key ? n.value : null;
+    }
+
+    public boolean containsKey(long key){
+        Node<V> n = ceilingNode(key);
+        return n != null && n.key == key;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    // Key lookups return defaultKey when there is no such key, so nothing is boxed
+    public long floorKey(long key, long defaultKey){
+        Node<V> n = floorNode(key, true);
+        return n == null ? defaultKey : n.key;
+    }
+
+    public long ceilingKey(long key, long defaultKey){
+        Node<V> n = ceilingNode(key);
+        return n == null ? defaultKey : n.key;
+    }
+
+    public long lowerKey(long key, long defaultKey){
+        Node<V> n = floorNode(key, false);
+        return n == null ? defaultKey : n.key;
+    }
+
+    public long higherKey(long key, long defaultKey){
+        Node<V> n = key == Long.MAX_VALUE ? null : ceilingNode(key + 1);
+        return n == null ? defaultKey : n.key;
+    }
+
+    public V floorValue(long key){
+        Node<V> n = floorNode(key, true);
+        return n == null ? null : n.value;
+    }
+
+    public V ceilingValue(long key){
+        Node<V> n = ceilingNode(key);
+        return n == null ? null : n.value;
+    }
+
+    // Same as NavigableMap.floorEntry(); allocates the returned entry
+    public Map.Entry<Long, V> floorEntry(long key){
+        return entry(floorNode(key, true));
+    }
+
+    public Map.Entry<Long, V> ceilingEntry(long key){
+        return entry(ceilingNode(key));
+    }
+
+    public Map.Entry<Long, V> lowerEntry(long key){
+        return entry(floorNode(key, false));
+    }
+
+    public Map.Entry<Long, V> higherEntry(long key){
+        return entry(key == Long.MAX_VALUE ? null : ceilingNode(key + 1));
+    }
+
+    private Map.Entry<Long, V> entry(Node<V> n){
+        return n == null ? null : new AbstractMap.SimpleImmutableEntry<>(n.key, n.value);
+    }
+
+    // Last node with key < bound (or <= bound when inclusive), null if none
+    private Node<V> floorNode(long bound, boolean inclusive){
+        while (true){
+            Node<V> x = head;
+            for(int i = level - 1; i >= 0; i--){
+                Node<V> next;
+                while ((next = x.next.get(i)) != null && (next.key < bound || (inclusive && next.key == bound))){
+                    x = next;
+                }
+            }
+            if(x == head){
+                return null;
+            }
+            if(!x.deleted){
+                return x;
+            }
+            // Raced with a remove of exactly this node: search again
+        }
+    }
+
+    // First node with key >= bound, null if none
+    private Node<V> ceilingNode(long bound){
+        Node<V> x = head;
+        for(int i = level - 1; i >= 0; i--){
+            Node<V> next;
+            while ((next = x.next.get(i)) != null && next.key < bound){
+                x = next;
+            }
+        }
+        Node<V> n = x.next.get(0);
+        while (n != null && n.deleted){
+            n = n.next.get(0);
+        }
+        return n;
+    }
+
+    private static int randomLevel(){
+        int r = ThreadLocalRandom.current().nextInt();
+        int lvl = 1;
+        while ((r & 1) != 0 && lvl < MAX_LEVEL){   // p = 1/2
+            lvl++;
+            r >>>= 1;
+        }
+        return lvl;
+    }
+
+    public Cursor<V> cursor(){
+        return new Cursor<>(this);
+    }
+
+    // Reusable range cursor: seek(from, to) then while(next()) read key()/value().
+    // Walks the live list, so entries inserted or removed during the scan may or may
+    // not be seen, but the keys returned are always increasing.
+    public static final class Cursor<V> {
+        private final LongSkipListMap<V> map;
+        private Node<V> node;
+        private long to;
+        private boolean started;
+
+        private Cursor(LongSkipListMap<V> map){
+            this.map = map;
+        }
+
+        public Cursor<V> seek(long from, long to){
+            this.node = map.ceilingNode(from);
+            this.to = to;
+            this.started = false;
+            return this;
+        }
+
+        public boolean next(){
+            if(started && node != null){
+                node = node.next.get(0);
+                while (node != null && node.deleted){
+                    node = node.next.get(0);
+                }
+            }
+            started = true;
+            if(node != null && node.key > to){
+                node = null;
+            }
+            return node != null;
+        }
+
+        public long key(){
+            return node.key;
+        }
+
+        public V value(){
+            return node.value;
+        }
+    }
+
+    private static final class Node<V> {
+        final long key;
+        volatile V value;
+        volatile boolean deleted;
+        final AtomicReferenceArray<Node<V>> next;
+
+        Node(long key, V value, int level){
+            this.key = key;
+            this.value = value;
+            this.next = new AtomicReferenceArray<>(level);
+        }
+    }
+
+    public static void main(String[] args){
+
+        LongSkipListMap<String> navigableMap = new LongSkipListMap<>();
+
+        navigableMap.put(1, "One");
+        navigableMap.put(3, "Three");
+        navigableMap.put(5, "Five");
+        navigableMap.put(7, "Seven");
+        navigableMap.put(9, "Nine");
+
+        System.out.println("Ceiling entry for key 4: " + navigableMap.ceilingEntry(4));
+        System.out.println("Floor entry for key 6: " + navigableMap.floorEntry(6));
+        System.out.println("Higher entry for key 5: " + navigableMap.higherEntry(5));
+        System.out.println("Lower entry for key 1: " + navigableMap.lowerEntry(1));
+        System.out.println("Floor key for key 0: " + navigableMap.floorKey(0, -1));
+
+        System.out.print("Range [3, 7]:");
+        Cursor<String> cursor = navigableMap.cursor();
+        for(cursor.seek(3, 7); cursor.next(); ){
+            System.out.print(" " + cursor.key() + "=" + cursor.value());
+        }
+        System.out.println();
+    }
+}
+
+/* Output : ->
+Ceiling entry for key 4: 5=Five
+Floor entry for key 6: 5=Five
+Higher entry for key 5: 7=Seven
+Lower entry for key 1: null
+Floor key for key 0: -1
+Range [3, 7]: 3=Three 5=Five 7=Seven
+ */
@@ -0,0 +1,365 @@
+package Map;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+// Benchmark of every map the Collections module demonstrates: HashMap, Hashtable,
+// LinkedHashMap, TreeMap, IdentityHashMap, WeakHashMap, Collections.synchronizedMap,
+// ConcurrentHashMap and the custom HashMapFinal, HashMapOpenAddressing, SwissHashMap,
+// ConcurrentHashMapFinal and MapUsingHash.
+//
+// Measures put, get (with a given hit ratio), remove and iterate for several sizes and
+// key types (Integer, short String, long String), plus a 90/10 get/put mix across
+// threads for the thread-safe maps. Results are printed as CSV (one row per
+// measurement) with ns/op and bytes allocated per op, read from the per-thread
+// allocation counter that the JMH GC profiler also uses (summed over the workers
+// in the multi-threaded runs).
+//
+// The repo has no build file to pull in JMH, so this is a plain harness with warm-up
+// and measured rounds (median reported). Run with optional arguments, e.g.
+//   java Map.MapBenchmark sizes=10,1000,100000,10000000 threads=1,8,64 hit=1.0,0.5 out=maps.csv
+
+public class MapBenchmark {
+
+    static int WARMUP = 3;
+    static int ROUNDS = 5;
+    static final int MIN_OPS = 200_000;
+    // out=<file> writes the CSV to a file instead of stdout
+    static PrintStream out = System.out;
+
+    // Common face of java.util.Map and the repo's own maps
+    interface Ops<K> {
+        void put(K key, Integer value);
+        Integer get(K key);
+        void remove(K key);
+        long iterate();
+    }
+
+    static <K> Ops<K> wrap(Map<K, Integer> map){
+        return new Ops<K>() {
+            public void put(K key, Integer value){ map.put(key, value); }
+            public Integer get(K key){ return map.get(key); }
+            public void remove(K key){ map.remove(key); }
+            public long iterate(){
+                long sum = 0;
+                for(Map.Entry<K, Integer> e : map.entrySet()) sum += e.getValue();
+                return sum;
+            }
+        };
+    }
+
+    // For the repo's maps, which share put/get/remove/forEach but no interface
+    static <K> Ops<K> wrap(BiConsumer<K, Integer> put, Function<K, Integer> get, Consumer<K> remove,
+                           Consumer<BiConsumer<K, Integer>> forEach){
+        return new Ops<K>() {
+            public void put(K key, Integer value){ put.accept(key, value); }
+            public Integer get(K key){ return get.apply(key); }
+            public void remove(K key){ remove.accept(key); }
+            public long iterate(){
+                long[] sum = {0};
+                forEach.accept((k, v) -> sum[0] += v);
+                return sum[0];
+            }
+        };
+    }
+
+    static <K> Ops<K> wrap(HashMapFinal<K, Integer> map){
+        return wrap(map::put, map::get, map::remove, map::forEach);
+    }
+
+    static <K> Ops<K> wrap(HashMapOpenAddressing<K, Integer> map){
+        return wrap(map::put, map::get, map::remove, map::forEach);
+    }
+
+    static <K> Ops<K> wrap(SwissHashMap<K, Integer> map){
+        return wrap(map::put, map::get, map::remove, map::forEach);
+    }
+
+    static <K> Ops<K> wrap(ConcurrentHashMapFinal<K, Integer> map){
+        return wrap(map::put, map::get, map::remove, map::forEach);
+    }
+
+    static Ops<String> wrap(MapUsingHash map){
+        return new Ops<String>() {
+            public void put(String key, Integer value){
+                if(!map.put(key, String.valueOf(value))){
+                    throw new IllegalStateException("MapUsingHash full at " + map.size() + " of " + map.capacity() + " slots");
+                }
+            }
+            public Integer get(String key){ String v = map.get(key); return v == null ? null : v.length(); }
+            public void remove(String key){ map.remove(key); }
+            public long iterate(){
+                long[] sum = {0};
+                map.forEach((k, v) -> sum[0] += v.length());
+                return sum[0];
+            }
+        };
+    }
+
+    static final class Candidate {
+        final String name;
+        final boolean threadSafe;
+        final Supplier<Ops<Object>> factory;
+
+        Candidate(String name, boolean threadSafe, Supplier<Ops<Object>> factory){
+            this.name = name;
+            this.threadSafe = threadSafe;
+            this.factory = factory;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static List<Candidate> candidates(int size, String keyType){
+        List<Candidate> list = new ArrayList<>();
+        list.add(new Candidate("HashMap", false, () -> wrap(new HashMap<>())));
+        list.add(new Candidate("Hashtable", true, () -> wrap(new Hashtable<>())));
+        list.add(new Candidate("LinkedHashMap", false, () -> wrap(new LinkedHashMap<>())));
+        list.add(new Candidate("TreeMap", false, () -> wrap(new TreeMap<>())));
+        list.add(new Candidate("IdentityHashMap", false, () -> wrap(new IdentityHashMap<>())));
+        list.add(new Candidate("WeakHashMap", false, () -> wrap(new WeakHashMap<>())));
+        list.add(new Candidate("synchronizedMap", true, () -> wrap(Collections.synchronizedMap(new HashMap<>()))));
+        list.add(new Candidate("ConcurrentHashMap", true, () -> wrap(new ConcurrentHashMap<>())));
+        list.add(new Candidate("HashMapFinal", false, () -> wrap(new HashMapFinal<>())));
+        list.add(new Candidate("HashMapOpenAddressing", false, () -> wrap(new HashMapOpenAddressing<>())));
+        list.add(new Candidate("SwissHashMap", false, () -> wrap(new SwissHashMap<>())));
+        list.add(new Candidate("ConcurrentHashMapFinal", true, () -> wrap(new ConcurrentHashMapFinal<>())));
+        if(!keyType.equals("Integer")){
+            // Fixed capacity: sized so a full load fits
+            list.add(new Candidate("MapUsingHash", false, () -> (Ops) wrap(new MapUsingHash(size * 2))));
+        }
+        return list;
+    }
+
+    static Object[] keys(String keyType, int n, int salt){
+        Object[] keys = new Object[n];
+        Random random = new Random(31L * n + salt);
+        for(int i = 0; i < n; i++){
+            int id = random.nextInt() & Integer.MAX_VALUE;
+            switch (keyType){
+                case "Integer": keys[i] = id; break;
+                case "shortString": keys[i] = Integer.toString(id, 36); break;
+                default: keys[i] = "customer/region-" + (id % 97) + "/account-" + id + "/profile"; break;
+            }
+        }
+        return keys;
+    }
+
+    // Query stream with the requested share of keys that are present. Hits reuse the
+    // stored key objects so IdentityHashMap is measured fairly.
+    static Object[] queries(Object[] present, Object[] absent, double hitRatio, int ops){
+        Object[] q = new Object[ops];
+        Random random = new Random(ops);
+        for(int i = 0; i < ops; i++){
+            q[i] = random.nextDouble() < hitRatio
+                    ? present[random.nextInt(present.length)]
+                    : absent[random.nextInt(absent.length)];
+        }
+        return q;
+    }
+
+    static long allocatedBytes(){
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    interface Body {
+        long run();
+    }
+
+    static long sink;
+
+    static double[] measure(int ops, Body body){
+        return measure(ops, () -> null, state -> body.run());
+    }
+
+    // setup runs before every round, outside the timed part, and hands its result to
+    // body. Returns {median ns per op, median bytes per op}
+    static <S> double[] measure(int ops, Supplier<S> setup, ToLongFunction<S> body){
+        double[] ns = new double[ROUNDS];
+        double[] bytes = new double[ROUNDS];
+        for(int r = 0; r < WARMUP + ROUNDS; r++){
+            S state = setup.get();
+            long a0 = allocatedBytes();
+            long t0 = System.nanoTime();
+            sink += body.applyAsLong(state);
+            long t1 = System.nanoTime();
+            long a1 = allocatedBytes();
+            if(r >= WARMUP){
+                ns[r - WARMUP] = (double) (t1 - t0) / ops;
+                bytes[r - WARMUP] = (double) (a1 - a0) / ops;
+            }
+        }
+        return medians(ns, bytes);
+    }
+
+    static double[] medians(double[] ns, double[] bytes){
+        Arrays.sort(ns);
+        Arrays.sort(bytes);
+        return new double[]{ns[ROUNDS / 2], bytes[ROUNDS / 2]};
+    }
+
+    static void report(String map, String keyType, int size, String op, double hitRatio, int threads, double[] result){
+        out.printf("%s,%s,%d,%s,%.2f,%d,%.2f,%.2f%n", map, keyType, size, op, hitRatio, threads, result[0], result[1]);
+    }
+
+    static void single(Candidate c, String keyType, int size, double[] hitRatios){
+        Object[] present = keys(keyType, size, 1);
+        Object[] absent = keys(keyType, Math.max(size, 1024), 2);
+
+        double[] put = measure(size, () -> {
+            Ops<Object> m = c.factory.get();
+            for(int i = 0; i < present.length; i++) m.put(present[i], i);
+            return 0;
+        });
+        report(c.name, keyType, size, "put", 1, 1, put);
+
+        Ops<Object> map = c.factory.get();
+        for(int i = 0; i < present.length; i++) map.put(present[i], i);
+
+        int ops = Math.max(MIN_OPS, size);
+        for(double hitRatio : hitRatios){
+            Object[] q = queries(present, absent, hitRatio, ops);
+            report(c.name, keyType, size, "get", hitRatio, 1, measure(ops, () -> {
+                long found = 0;
+                for(Object k : q) if(map.get(k) != null) found++;
+                return found;
+            }));
+        }
+
+        int loops = Math.max(1, MIN_OPS / Math.max(1, size));
+        report(c.name, keyType, size, "iterate", 1, 1, measure(loops * size, () -> {
+            long sum = 0;
+            for(int l = 0; l < loops; l++) sum += map.iterate();
+            return sum;
+        }));
+
+        report(c.name, keyType, size, "remove", 1, 1, measure(size, () -> {
+            Ops<Object> m = c.factory.get();
+            for(int i = 0; i < present.length; i++) m.put(present[i], i);
+            return m;
+        }, m -> {
+            for(Object k : present) m.remove(k);
+            return 0;
+        }));
+    }
+
+    // 90% get / 10% put from every thread against one shared map; ns/op is wall time
+    // divided by the total operation count, i.e. the inverse of throughput. The workers
+    // are started and parked on a latch before the clock starts, and each one reports
+    // the bytes it allocated itself.
+    static void concurrent(Candidate c, String keyType, int size, int threads){
+        Object[] present = keys(keyType, size, 1);
+        Ops<Object> map = c.factory.get();
+        for(int i = 0; i < present.length; i++) map.put(present[i], i);
+        int opsPerThread = Math.max(MIN_OPS / threads, 10_000);
+        int ops = opsPerThread * threads;
+
+        double[] ns = new double[ROUNDS];
+        double[] bytes = new double[ROUNDS];
+        for(int r = 0; r < WARMUP + ROUNDS; r++){
+            CountDownLatch ready = new CountDownLatch(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            long[] allocated = new long[threads];
+            Thread[] workers = new Thread[threads];
+            for(int t = 0; t < threads; t++){
+                int id = t;
+                workers[t] = new Thread(() -> {
+                    Random random = new Random(id);
+                    ready.countDown();
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long a0 = allocatedBytes();
+                    for(int i = 0; i < opsPerThread; i++){
+                        Object k = present[random.nextInt(present.length)];
+                        if(random.nextInt(10) == 0) map.put(k, i);
+                        else map.get(k);
+                    }
+                    allocated[id] = allocatedBytes() - a0;
+                });
+                workers[t].start();
+            }
+            try {
+                ready.await();
+                long t0 = System.nanoTime();
+                start.countDown();
+                for(Thread w : workers){
+                    w.join();
+                }
+                long t1 = System.nanoTime();
+                if(r >= WARMUP){
+                    ns[r - WARMUP] = (double) (t1 - t0) / ops;
+                    bytes[r - WARMUP] = (double) Arrays.stream(allocated).sum() / ops;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        report(c.name, keyType, size, "get90put10", 0.9, threads, medians(ns, bytes));
+    }
+
+    public static void main(String[] args) throws FileNotFoundException {
+        int[] sizes = {10, 1_000, 100_000};
+        int[] threadCounts = {1, 4};
+        double[] hitRatios = {1.0, 0.5, 0.0};
+        String[] keyTypes = {"Integer", "shortString", "longString"};
+
+        for(String arg : args){
+            String[] kv = arg.split("=", 2);
+            String[] parts = kv[1].split(",");
+            switch (kv[0]){
+                case "sizes": sizes = Arrays.stream(parts).mapToInt(Integer::parseInt).toArray(); break;
+                case "threads": threadCounts = Arrays.stream(parts).mapToInt(Integer::parseInt).toArray(); break;
+                case "hit": hitRatios = Arrays.stream(parts).mapToDouble(Double::parseDouble).toArray(); break;
+                case "keys": keyTypes = parts; break;
+                case "rounds":
+                    ROUNDS = Integer.parseInt(parts[0]);
+                    if(ROUNDS <= 0){
+                        throw new IllegalArgumentException("rounds must be positive: " + ROUNDS);
+                    }
+                    break;
+                case "out": out = new PrintStream(kv[1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + kv[0]);
+            }
+        }
+
+        out.println("map,keyType,size,op,hitRatio,threads,nsPerOp,bytesPerOp");
+        for(String keyType : keyTypes){
+            for(int size : sizes){
+                for(Candidate c : candidates(size, keyType)){
+                    single(c, keyType, size, hitRatios);
+                    if(c.threadSafe){
+                        for(int threads : threadCounts){
+                            concurrent(c, keyType, size, threads);
+                        }
+                    }
+                }
+            }
+        }
+        out.flush();
+        if(sink == 42) System.out.println();   // keep results alive
+    }
+}
@@ -0,0 +1,164 @@
+package Map;
+
+import java.util.function.BiConsumer;
+
+// Fixed-capacity String -> String table using bucketized cuckoo hashing: every key
+// lives in one of two candidate buckets (two hash functions), each bucket holds
+// SLOTS entries. get() therefore looks at most at two buckets and allocates nothing.
+// put() kicks existing keys to their other bucket to make room; if no room can be
+// found it undoes the kicks and returns false instead of overwriting another key.
+//
+// MyHashMap demonstrates it; it sits in its own file because HashMapSnapshot and
+// MapBenchmark use it as well.
+
+public class MapUsingHash {
+
+    static final int SLOTS = 4;
+    static final int MAX_KICKS = 500;
+
+    private final String[] keys;
+    private final String[] values;
+    private final int bucketMask;
+    private final int[] kickPath = new int[MAX_KICKS];
+    private int kickSeed = 0x2545F491;
+    private int size;
+
+    public MapUsingHash(){
+        this(100);
+    }
+
+    public MapUsingHash(int capacity){
+        int buckets = HashMapOpenAddressing.tableSizeFor(Math.max(2, (capacity + SLOTS - 1) / SLOTS));
+        keys = new String[buckets * SLOTS];
+        values = new String[buckets * SLOTS];
+        bucketMask = buckets - 1;
+    }
+
+    private int bucket1(int h){
+        return HashMapOpenAddressing.hash(h) & bucketMask;
+    }
+
+    private int bucket2(int h){
+        int x = h * 0x85EBCA6B;
+        x ^= x >>> 13;
+        x *= 0xC2B2AE35;
+        return (x ^ (x >>> 16)) & bucketMask;
+    }
+
+    // Returns false when the table is full and the key could not be placed
+    public boolean put(String key, String value){
+        int slot = indexOf(key);
+        if(slot >= 0){
+            values[slot] = value;
+            return true;
+        }
+
+        int h = key.hashCode();
+        if(placeInBucket(bucket1(h), key, value) || placeInBucket(bucket2(h), key, value)){
+            size++;
+            return true;
+        }
+
+        // Random walk: swap the homeless entry into a random slot of one of its
+        // buckets and carry the evicted entry on to its alternate bucket
+        String carryKey = key;
+        String carryValue = value;
+        int bucket = bucket1(h);
+        for(int kick = 0; kick < MAX_KICKS; kick++){
+            kickSeed ^= kickSeed << 13;
+            kickSeed ^= kickSeed >>> 17;
+            kickSeed ^= kickSeed << 5;
+            int victim = bucket * SLOTS + ((kickSeed >>> 16) & (SLOTS - 1));
+            kickPath[kick] = victim;
+
+            String evictedKey = keys[victim];
+            String evictedValue = values[victim];
+            keys[victim] = carryKey;
+            values[victim] = carryValue;
+            carryKey = evictedKey;
+            carryValue = evictedValue;
+
+            int eh = carryKey.hashCode();
+            bucket = bucket1(eh) == bucket ? bucket2(eh) : bucket1(eh);
+            if(placeInBucket(bucket, carryKey, carryValue)){
+                size++;
+                return true;
+            }
+        }
+
+        // Table is full: replay the kicks backwards so every key is back where it was
+        for(int kick = MAX_KICKS - 1; kick >= 0; kick--){
+            int victim = kickPath[kick];
+            String k = keys[victim];
+            String v = values[victim];
+            keys[victim] = carryKey;
+            values[victim] = carryValue;
+            carryKey = k;
+            carryValue = v;
+        }
+        return false;
+    }
+
+    private boolean placeInBucket(int bucket, String key, String value){
+        for(int i = bucket * SLOTS; i < bucket * SLOTS + SLOTS; i++){
+            if(keys[i] == null){
+                keys[i] = key;
+                values[i] = value;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String get(String key){
+        int slot = indexOf(key);
+        return slot < 0 ? null : values[slot];
+    }
+
+    public  void remove(String key){
+        int slot = indexOf(key);
+        if(slot >= 0){
+            keys[slot] = null;
+            values[slot] = null;
+            size--;
+        }
+    }
+
+    public boolean containsKey(String key){
+        return indexOf(key) >= 0;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public int capacity(){
+        return keys.length;
+    }
+
+    private int indexOf(String key){
+        int h = key.hashCode();
+        int b = bucket1(h) * SLOTS;
+        for(int i = b; i < b + SLOTS; i++){
+            if(key.equals(keys[i])){
+                return i;
+            }
+        }
+        b = bucket2(h) * SLOTS;
+        for(int i = b; i < b + SLOTS; i++){
+            if(key.equals(keys[i])){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void forEach(BiConsumer<String, String> action){
+        for(int i = 0; i < keys.length; i++){
+            if(keys[i] != null){
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+}
@@ -1,49 +1,6 @@
 package Map;
 
 import java.util.*;
-class MapUsingHash {
-
-    private Entity[] entities;
-
-    public MapUsingHash(){
-        entities = new Entity[100];
-    }
-
-    public void put(String key, String value){
-        int hash = Math.abs(key.hashCode() % entities.length);
-        entities[hash] = new Entity(key, value);
-    }
-
-    public String get(String key){
-        int hash = Math.abs(key.hashCode() % entities.length);
-        if(entities[hash] != null &&  entities[hash].key.equals(key)){
-            return entities[hash].value;
-        }
-        return  null;
-    }
-
-    public  void remove(String key){
-        int hash = Math.abs(key.hashCode() % entities.length);
-        if(entities[hash] != null &&  entities[hash].key.equals(key)){
-            entities[hash] = null;
-        }
-    }
-
-
-
-    private class Entity{
-        String key;
-        String value;
-
-
-        public Entity(String key, String value){
-            this.key = key;
-            this.value = value;
-        }
-
-    }
-
-}
 
 public class MyHashMap {
 
@@ -56,6 +13,16 @@ public class MyHashMap {
         map.put("Litchi","Pride of Bihar");
 
         System.out.println(map.get("Apple"));
+
+        MapUsingHash small = new MapUsingHash(8);
+        int stored = 0;
+        for(int i = 0; i < 20; i++){
+            if(small.put("key" + i, "value" + i)){
+                stored++;
+            }
+        }
+        System.out.println(stored + " of 20 stored, capacity " + small.capacity());
+        System.out.println(small.get("key0"));
     }
 
 
@@ -0,0 +1,195 @@
+package Map;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+// Swiss-table style engine behind the HashMapFinal put/get/remove/containsKey API.
+// Slots are grouped by 8 and every group has one long of control bytes:
+//   0xxxxxxx  full slot, the low 7 bits of the key's hash (h2)
+//   10000000  EMPTY
+//   11111110  DELETED (tombstone)
+// A lookup reads the control word of a group and compares all 8 bytes against h2 at
+// once with SWAR bit tricks, so keys[] is only touched for slots whose 7-bit
+// fragment already matches. A miss usually stops at the first group that still has
+// an EMPTY byte, i.e. after reading a single long.
+
+public class SwissHashMap<K, V> {
+
+    private static final long EMPTY = 0x80L;
+    private static final long DELETED = 0xFEL;
+    private static final long LSB = 0x0101010101010101L;
+    private static final long MSB = 0x8080808080808080L;
+    private static final int GROUP = 8;
+
+    private long[] ctrl;
+    private Object[] keys;
+    private Object[] values;
+
+    private int size = 0;
+    private int deleted = 0;
+    private int groupMask;
+    private int threshold;
+
+    public SwissHashMap(){
+        this(16);
+    }
+
+    public SwissHashMap(int expectedSize){
+        allocate(HashMapOpenAddressing.tableSizeFor(Math.max(GROUP, (int) (expectedSize * 8L / 7) + 1)));
+    }
+
+    private void allocate(int capacity){
+        int groups = Math.max(1, capacity / GROUP);
+        ctrl = new long[groups];
+        Arrays.fill(ctrl, EMPTY * LSB);
+        keys = new Object[groups * GROUP];
+        values = new Object[groups * GROUP];
+        groupMask = groups - 1;
+        threshold = groups * GROUP / 8 * 7;
+    }
+
+    private static long matchByte(long word, long b){
+        long x = word ^ (b * LSB);
+        return (x - LSB) & ~x & MSB;
+    }
+
+    private static long matchEmpty(long word){
+        return word & (~word << 6) & MSB;
+    }
+
+    private static long matchEmptyOrDeleted(long word){
+        return word & MSB;
+    }
+
+    private static int slotOf(long match){
+        return Long.numberOfTrailingZeros(match) >>> 3;
+    }
+
+    private void setCtrl(int slot, long b){
+        int g = slot / GROUP;
+        int shift = (slot % GROUP) * 8;
+        ctrl[g] = (ctrl[g] & ~(0xFFL << shift)) | (b << shift);
+    }
+
+    private int indexOf(Object key, int h){
+        long h2 = h & 0x7F;
+        int g = (h >>> 7) & groupMask;
+        for(int step = 1; ; step++){
+            long word = ctrl[g];
+            for(long m = matchByte(word, h2); m != 0; m &= m - 1){
+                int slot = g * GROUP + slotOf(m);
+                if(key.equals(keys[slot])){
+                    return slot;
+                }
+            }
+            if(matchEmpty(word) != 0 || step > groupMask + 1){
+                return -1;
+            }
+            g = (g + step) & groupMask;    // triangular probing visits every group
+        }
+    }
+
+    public void put(K key, V value){
+        int h = HashMapOpenAddressing.hash(key);
+        int slot = indexOf(key, h);
+        if(slot >= 0){
+            values[slot] = value;
+            return;
+        }
+
+        if(size + deleted >= threshold){
+            reHash(size * 2 >= threshold ? keys.length * 2 : keys.length);
+        }
+        slot = findInsertSlot(h);
+        if(((ctrl[slot / GROUP] >>> ((slot % GROUP) * 8)) & 0xFF) == DELETED){
+            deleted--;
+        }
+        setCtrl(slot, h & 0x7F);
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    private int findInsertSlot(int h){
+        int g = (h >>> 7) & groupMask;
+        for(int step = 1; ; step++){
+            long m = matchEmptyOrDeleted(ctrl[g]);
+            if(m != 0){
+                return g * GROUP + slotOf(m);
+            }
+            g = (g + step) & groupMask;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(K key){
+        int slot = indexOf(key, HashMapOpenAddressing.hash(key));
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    public boolean containsKey(K key){
+        return indexOf(key, HashMapOpenAddressing.hash(key)) >= 0;
+    }
+
+    public void remove(K key){
+        int slot = indexOf(key, HashMapOpenAddressing.hash(key));
+        if(slot < 0){
+            return;
+        }
+        // A group that still has an EMPTY byte never made a probe continue past it,
+        // so the slot can go straight back to EMPTY instead of becoming a tombstone
+        if(matchEmpty(ctrl[slot / GROUP]) != 0){
+            setCtrl(slot, EMPTY);
+        } else {
+            setCtrl(slot, DELETED);
+            deleted++;
+        }
+        keys[slot] = null;
+        values[slot] = null;
+        size--;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action){
+        for(int i = 0; i < keys.length; i++){
+            if(keys[i] != null){
+                action.accept((K) keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    private void reHash(int capacity){
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        deleted = 0;
+
+        for(int i = 0; i < oldKeys.length; i++){
+            if(oldKeys[i] != null){
+                int h = HashMapOpenAddressing.hash(oldKeys[i]);
+                int slot = findInsertSlot(h);
+                setCtrl(slot, h & 0x7F);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    public static void main(String[] args){
+        SwissHashMap<String, Integer> map = new SwissHashMap<>();
+
+        map.put("Mango", 10);
+        map.put("Apple", 20);
+        map.put("Litchi", 30);
+
+        System.out.println(map.get("Apple"));          // 20
+        System.out.println(map.containsKey("Banana")); // false
+        map.remove("Apple");
+        System.out.println(map.containsKey("Apple"));  // false
+        System.out.println(map.size());                // 2
+    }
+}
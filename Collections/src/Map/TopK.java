@@ -0,0 +1,150 @@
+package Map;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+
+// Top-K by value without sorting the whole map. A min-heap holds the best k seen so
+// far and a new element only enters by beating the heap's smallest, so a pass costs
+// O(n log k) time and O(k) memory instead of an O(n) list copy plus O(n log n) sort.
+// collector() works with parallel streams: every chunk fills its own heap and the
+// combiner merges them. Tracker keeps the top k up to date while entries change; it is
+// exact, and therefore holds every entry (O(n) memory), not just k of them.
+
+public class TopK {
+
+    // The k largest entries by value (per comparator), largest first. Entries are
+    // copied when they enter the heap, because entries of IdentityHashMap, EnumMap and
+    // others are views into the map that change or go stale when the map does.
+    public static <K, V> List<Map.Entry<K, V>> topK(Map<K, V> map, int k, Comparator<? super V> comparator){
+        Comparator<Map.Entry<K, V>> byValue = (e1, e2) -> comparator.compare(e1.getValue(), e2.getValue());
+        Heap<Map.Entry<K, V>> heap = new Heap<>(k, byValue);
+        for(Map.Entry<K, V> entry : map.entrySet()){
+            if(heap.admits(entry)){
+                heap.offer(new AbstractMap.SimpleImmutableEntry<>(entry));
+            }
+        }
+        return heap.toSortedList();
+    }
+
+    public static <K, V extends Comparable<? super V>> List<Map.Entry<K, V>> topK(Map<K, V> map, int k){
+        return topK(map, k, Comparator.naturalOrder());
+    }
+
+    // Collects the k largest stream elements, largest first; safe for parallel streams
+    public static <T> Collector<T, ?, List<T>> collector(int k, Comparator<? super T> comparator){
+        return Collector.of(
+                () -> new Heap<T>(k, comparator),
+                Heap::offer,
+                (left, right) -> {
+                    for(T t : right.queue){
+                        left.offer(t);
+                    }
+                    return left;
+                },
+                Heap::toSortedList,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    private static final class Heap<T> {
+        final int k;
+        final Comparator<? super T> comparator;
+        final PriorityQueue<T> queue;
+
+        Heap(int k, Comparator<? super T> comparator){
+            if(k < 0){
+                throw new IllegalArgumentException("k=" + k);
+            }
+            this.k = k;
+            this.comparator = comparator;
+            this.queue = new PriorityQueue<>(Math.max(1, k), comparator);
+        }
+
+        boolean admits(T t){
+            return queue.size() < k || (k > 0 && comparator.compare(t, queue.peek()) > 0);
+        }
+
+        void offer(T t){
+            if(queue.size() < k){
+                queue.add(t);
+            } else if(admits(t)){
+                queue.poll();
+                queue.add(t);
+            }
+        }
+
+        List<T> toSortedList(){
+            List<T> list = new ArrayList<>(queue);
+            list.sort(Collections.reverseOrder(comparator));
+            return list;
+        }
+    }
+
+    // Continuously maintained top-K: every put()/remove() updates a ValueSortedMap in
+    // O(log n) and top() reads the k largest from the end of its value index, so a
+    // value that drops out of the top k is replaced by the next best correctly.
+    // The result is exact, which is why every tracked entry is kept: memory is O(n) in
+    // the number of keys, not O(k). A bounded heap of k cannot refill itself after a
+    // decrease or remove, and a sketch would only give approximate counts.
+    public static class Tracker<K, V> {
+        private final ValueSortedMap<K, V> index;
+        private final int k;
+
+        public Tracker(int k, Comparator<? super V> comparator){
+            this.k = k;
+            this.index = new ValueSortedMap<>(comparator);
+        }
+
+        public void put(K key, V value){
+            index.put(key, value);
+        }
+
+        public void remove(K key){
+            index.remove(key);
+        }
+
+        public List<Map.Entry<K, V>> top(){
+            int n = Math.min(k, index.size());
+            List<Map.Entry<K, V>> list = new ArrayList<>(n);
+            for(int i = 0; i < n; i++){
+                list.add(index.entryAtRank(index.size() - 1 - i));
+            }
+            return list;
+        }
+    }
+
+    public static void main(String[] args){
+
+        Map<Integer,String> empMap = new HashMap<>();
+
+        empMap.put(101,"Ravi");
+        empMap.put(110,"Avi");
+        empMap.put(111,"Savi");
+        empMap.put(183,"Sabhi");
+        empMap.put(171,"Manvi");
+        empMap.put(186,"Ravi");
+
+        System.out.println(topK(empMap, 3));                    // [111=Savi, 183=Sabhi, 186=Ravi]
+
+        List<Integer> top5 = IntStream.range(0, 1_000_000).parallel()
+                .map(i -> (int) ((i * 7919L) % 1_000_003))
+                .boxed()
+                .collect(collector(5, Comparator.naturalOrder()));
+        System.out.println(top5);                               // [1000002, 1000001, 1000000, 999999, 999998]
+
+        Tracker<String, Integer> scores = new Tracker<>(2, Comparator.naturalOrder());
+        scores.put("Alice", 85);
+        scores.put("Bob", 90);
+        scores.put("David", 95);
+        System.out.println(scores.top());                       // [David=95, Bob=90]
+        scores.put("David", 10);
+        System.out.println(scores.top());                       // [Bob=90, Alice=85]
+    }
+}
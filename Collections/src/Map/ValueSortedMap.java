@@ -0,0 +1,268 @@
+package Map;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+
+// Map that keeps a second index ordered by value, so the "sort a map by value" job
+// from SortMapBasedOnValue does not need to copy entrySet() into a list and sort it
+// on every query. Keys are looked up through a HashMap; the value index is a treap
+// (randomized balanced BST) whose nodes also store their subtree size, which makes
+// rank(key) and entryAtRank(i) O(log n). Equal values are ordered by insertion.
+// Every put()/remove() updates both structures in O(log n).
+
+public class ValueSortedMap<K, V> {
+
+    private final HashMap<K, Node<K, V>> byKey = new HashMap<>();
+    private final Comparator<? super V> comparator;
+    private Node<K, V> root;
+    private long sequence;
+
+    @SuppressWarnings("unchecked")
+    public ValueSortedMap(){
+        this((Comparator<? super V>) Comparator.naturalOrder());
+    }
+
+    public ValueSortedMap(Comparator<? super V> comparator){
+        this.comparator = comparator;
+    }
+
+    public V put(K key, V value){
+        Node<K, V> old = byKey.get(key);
+        if(old != null){
+            root = delete(root, old);
+        }
+        Node<K, V> node = new Node<>(key, value, sequence++);
+        byKey.put(key, node);
+        root = insert(root, node);
+        return old == null ? null : old.value;
+    }
+
+    public V get(K key){
+        Node<K, V> node = byKey.get(key);
+        return node == null ? null : node.value;
+    }
+
+    public V remove(K key){
+        Node<K, V> node = byKey.remove(key);
+        if(node == null){
+            return null;
+        }
+        root = delete(root, node);
+        return node.value;
+    }
+
+    public boolean containsKey(K key){
+        return byKey.containsKey(key);
+    }
+
+    public int size(){
+        return byKey.size();
+    }
+
+    // Position of key in ascending value order (0 = smallest value), or -1 if absent
+    public int rank(K key){
+        Node<K, V> target = byKey.get(key);
+        if(target == null){
+            return -1;
+        }
+        int rank = 0;
+        Node<K, V> n = root;
+        while (n != target){
+            if(compare(target, n) < 0){
+                n = n.left;
+            } else {
+                rank += size(n.left) + 1;
+                n = n.right;
+            }
+        }
+        return rank + size(n.left);
+    }
+
+    public Map.Entry<K, V> entryAtRank(int rank){
+        if(rank < 0 || rank >= size()){
+            throw new IndexOutOfBoundsException("rank=" + rank + ", size=" + size());
+        }
+        Node<K, V> n = root;
+        while (true){
+            int leftSize = size(n.left);
+            if(rank < leftSize){
+                n = n.left;
+            } else if(rank == leftSize){
+                return new AbstractMap.SimpleImmutableEntry<>(n.key, n.value);
+            } else {
+                rank -= leftSize + 1;
+                n = n.right;
+            }
+        }
+    }
+
+    // Visits every entry in ascending value order
+    public void forEachByValue(BiConsumer<? super K, ? super V> action){
+        inOrder(root, null, null, action);
+    }
+
+    // Visits entries with from <= value <= to in ascending value order; only the
+    // matching part of the tree is walked
+    public void rangeByValue(V from, V to, BiConsumer<? super K, ? super V> action){
+        inOrder(root, from, to, action);
+    }
+
+    public List<Map.Entry<K, V>> entriesByValue(){
+        List<Map.Entry<K, V>> list = new ArrayList<>(size());
+        forEachByValue((k, v) -> list.add(new AbstractMap.SimpleImmutableEntry<>(k, v)));
+        return list;
+    }
+
+    private void inOrder(Node<K, V> n, V from, V to, BiConsumer<? super K, ? super V> action){
+        while (n != null){
+            boolean aboveFrom = from == null || comparator.compare(n.value, from) >= 0;
+            boolean belowTo = to == null || comparator.compare(n.value, to) <= 0;
+            if(aboveFrom){
+                inOrder(n.left, from, to, action);
+            }
+            if(aboveFrom && belowTo){
+                action.accept(n.key, n.value);
+            }
+            if(!belowTo){
+                return;
+            }
+            n = n.right;    // loop instead of recursing on the right spine
+        }
+    }
+
+    private int compare(Node<K, V> a, Node<K, V> b){
+        int c = comparator.compare(a.value, b.value);
+        return c != 0 ? c : Long.compare(a.seq, b.seq);
+    }
+
+    private static int size(Node<?, ?> n){
+        return n == null ? 0 : n.size;
+    }
+
+    private static <K, V> Node<K, V> update(Node<K, V> n){
+        n.size = 1 + size(n.left) + size(n.right);
+        return n;
+    }
+
+    private Node<K, V> insert(Node<K, V> t, Node<K, V> node){
+        if(t == null){
+            return node;
+        }
+        if(node.priority > t.priority){
+            // node becomes the root of this subtree: split t around it
+            Node<K, V>[] parts = split(t, node);
+            node.left = parts[0];
+            node.right = parts[1];
+            return update(node);
+        }
+        if(compare(node, t) < 0){
+            t.left = insert(t.left, node);
+        } else {
+            t.right = insert(t.right, node);
+        }
+        return update(t);
+    }
+
+    // Splits t into nodes ordered before pivot and nodes ordered after it
+    @SuppressWarnings("unchecked")
+    private Node<K, V>[] split(Node<K, V> t, Node<K, V> pivot){
+        if(t == null){
+            return (Node<K, V>[]) new Node<?, ?>[2];
+        }
+        if(compare(t, pivot) < 0){
+            Node<K, V>[] parts = split(t.right, pivot);
+            t.right = parts[0];
+            parts[0] = update(t);
+            return parts;
+        }
+        Node<K, V>[] parts = split(t.left, pivot);
+        t.left = parts[1];
+        parts[1] = update(t);
+        return parts;
+    }
+
+    private Node<K, V> delete(Node<K, V> t, Node<K, V> node){
+        if(t == node){
+            return merge(t.left, t.right);
+        }
+        if(compare(node, t) < 0){
+            t.left = delete(t.left, node);
+        } else {
+            t.right = delete(t.right, node);
+        }
+        return update(t);
+    }
+
+    private Node<K, V> merge(Node<K, V> a, Node<K, V> b){
+        if(a == null) return b;
+        if(b == null) return a;
+        if(a.priority > b.priority){
+            a.right = merge(a.right, b);
+            return update(a);
+        }
+        b.left = merge(a, b.left);
+        return update(b);
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final long seq;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Node<K, V> left, right;
+        int size = 1;
+
+        Node(K key, V value, long seq){
+            this.key = key;
+            this.value = value;
+            this.seq = seq;
+        }
+    }
+
+    public static void main(String[] args){
+
+        ValueSortedMap<Integer,String> empMap = new ValueSortedMap<>();
+
+        empMap.put(101,"Ravi");
+        empMap.put(110,"Avi");
+        empMap.put(111,"Savi");
+        empMap.put(183,"Sabhi");
+        empMap.put(171,"Manvi");
+        empMap.put(186,"Ravi");
+
+        System.out.println("Map Sorted based on Value");
+        empMap.forEachByValue((k, v) -> System.out.println(k + "\t" + v));
+
+        System.out.println("Rank of 183: " + empMap.rank(183));              // 4
+        System.out.println("Rank 0: " + empMap.entryAtRank(0));              // 110=Avi
+
+        empMap.put(110, "Zavi");
+        System.out.println("Rank of 110 after update: " + empMap.rank(110)); // 5
+
+        System.out.println("Values from M to R");
+        empMap.rangeByValue("M", "Rz", (k, v) -> System.out.println(k + "\t" + v));
+    }
+}
+
+/* Output : ->
+Map Sorted based on Value
+110	Avi
+171	Manvi
+101	Ravi
+186	Ravi
+183	Sabhi
+111	Savi
+Rank of 183: 4
+Rank 0: 110=Avi
+Rank of 110 after update: 5
+Values from M to R
+171	Manvi
+101	Ravi
+186	Ravi
+ */
@@ -0,0 +1,182 @@
+package Enum;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.EnumMap;
+
+// Per-constant event counter for many threads, the counting version of EnumMapExample.
+// EnumMap<E, AtomicLong> puts all threads on the same few AtomicLongs (and often the
+// same cache line); here every constant is a slot in one long[] indexed by ordinal,
+// and that long[] holds several stripes of slots like the cells of a LongAdder.
+//
+// Each thread adds to the stripe picked by its probe. When a CAS fails, another thread
+// is using the same stripe, so the thread moves its probe and retries there. Every
+// stripe row is its slots rounded up to whole 64-byte lines plus one more line of
+// gap, and a line of padding comes before the first row. The long[] data does not
+// start on a line boundary (it follows the array header), so the whole-line rounding
+// alone would still let neighbouring rows meet inside one line; with the gap, the
+// used slots of two stripes are always more than 64 bytes apart. Reads sum a column.
+
+public class EnumCounter<E extends Enum<E>> {
+
+    private static final VarHandle CELL = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int LINE = 8;                      // longs per 64-byte cache line
+    private static final int MAX_STRIPES = 64;
+
+    // Per-thread stripe choice; seeded from the thread id, moved on contention
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(() -> {
+        int h = (int) Thread.currentThread().getId() * 0x9E3779B9;
+        return new int[]{h == 0 ? 1 : h};
+    });
+
+    private final Class<E> type;
+    private final E[] constants;
+    private final int row;                                  // longs per stripe, gap line included
+    private final int mask;
+    private final long[] cells;
+    private final long[] exported;                          // totals at the last delta()
+
+    public EnumCounter(Class<E> type){
+        this(type, Runtime.getRuntime().availableProcessors());
+    }
+
+    public EnumCounter(Class<E> type, int stripes){
+        this.type = type;
+        this.constants = type.getEnumConstants();
+        int n = 1;
+        while (n < Math.min(Math.max(stripes, 1), MAX_STRIPES)){
+            n <<= 1;
+        }
+        this.mask = n - 1;
+        this.row = (constants.length + LINE - 1) / LINE * LINE + LINE;
+        this.cells = new long[LINE + n * row];
+        this.exported = new long[constants.length];
+    }
+
+    public void increment(E e){
+        add(e, 1);
+    }
+
+    public void add(E e, long delta){
+        int ordinal = e.ordinal();
+        int[] probe = PROBE.get();
+        int h = probe[0];
+        while (true){
+            int i = LINE + (h & mask) * row + ordinal;
+            long v = (long) CELL.getVolatile(cells, i);
+            if(CELL.weakCompareAndSet(cells, i, v, v + delta)){
+                break;
+            }
+            h ^= h << 13;                                   // contended: xorshift to another stripe
+            h ^= h >>> 17;
+            h ^= h << 5;
+            probe[0] = h;
+        }
+    }
+
+    public long get(E e){
+        long sum = 0;
+        for(int s = 0, i = LINE + e.ordinal(); s <= mask; s++, i += row){
+            sum += (long) CELL.getVolatile(cells, i);
+        }
+        return sum;
+    }
+
+    public long total(){
+        long sum = 0;
+        for(E e : constants){
+            sum += get(e);
+        }
+        return sum;
+    }
+
+    // Current counts indexed by ordinal. Each count is exact for the moment it was read;
+    // adds running concurrently may land in some counts and not yet in others.
+    public long[] snapshot(){
+        long[] counts = new long[constants.length];
+        for(E e : constants){
+            counts[e.ordinal()] = get(e);
+        }
+        return counts;
+    }
+
+    public EnumMap<E, Long> snapshotMap(){
+        return toMap(snapshot());
+    }
+
+    // Reads and zeroes every count; no add is lost or counted twice
+    public long[] resetAndGet(){
+        long[] counts = new long[constants.length];
+        for(int o = 0; o < constants.length; o++){
+            for(int s = 0, i = LINE + o; s <= mask; s++, i += row){
+                counts[o] += (long) CELL.getAndSet(cells, i, 0L);
+            }
+        }
+        synchronized (exported){
+            Arrays.fill(exported, 0);
+        }
+        return counts;
+    }
+
+    // Counts added since the previous delta() call, for exporters that push increments
+    // (e.g. to a metrics system) while the counter keeps running
+    public long[] delta(){
+        long[] current = snapshot();
+        long[] delta = new long[current.length];
+        synchronized (exported){
+            for(int o = 0; o < current.length; o++){
+                delta[o] = current[o] - exported[o];
+                exported[o] = current[o];
+            }
+        }
+        return delta;
+    }
+
+    public EnumMap<E, Long> toMap(long[] counts){
+        EnumMap<E, Long> map = new EnumMap<>(type);
+        for(E e : constants){
+            map.put(e, counts[e.ordinal()]);
+        }
+        return map;
+    }
+
+    enum Day {
+        MONDAY, TUESDAY, WEDNESDAY, THURSDAY, FRIDAY, SATURDAY, SUNDAY
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        EnumCounter<Day> visits = new EnumCounter<>(Day.class);
+
+        // 8 threads, each counting 1,000,000 visits spread over the week
+        Thread[] threads = new Thread[8];
+        for(int t = 0; t < threads.length; t++){
+            threads[t] = new Thread(() -> {
+                for(int i = 0; i < 1_000_000; i++){
+                    visits.increment(Day.values()[i % 7]);
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread t : threads){
+            t.join();
+        }
+        System.out.println("Total: " + visits.total());
+        System.out.println("MONDAY: " + visits.get(Day.MONDAY));
+
+        System.out.println("Delta 1: " + visits.toMap(visits.delta()).get(Day.SUNDAY));
+        visits.add(Day.SUNDAY, 5);
+        System.out.println("Delta 2: " + visits.toMap(visits.delta()));
+
+        long[] drained = visits.resetAndGet();
+        System.out.println("Drained SUNDAY: " + drained[Day.SUNDAY.ordinal()] + ", now: " + visits.get(Day.SUNDAY));
+    }
+}
+
+/* Output : ->
+Total: 8000000
+MONDAY: 1142864
+Delta 1: 1142856
+Delta 2: {MONDAY=0, TUESDAY=0, WEDNESDAY=0, THURSDAY=0, FRIDAY=0, SATURDAY=0, SUNDAY=5}
+Drained SUNDAY: 1142861, now: 0
+ */
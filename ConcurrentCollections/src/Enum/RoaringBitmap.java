@@ -0,0 +1,1013 @@
+package Enum;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+// EnumSet stores a set of constants as bits in a long, which only scales to a few
+// dozen values. This is the same idea for the whole int range, compressed the way
+// Roaring bitmaps do it: an id is split into a high 16-bit key and a low 16-bit value,
+// and every key owns one container holding the low values in the cheapest form:
+//   array  - sorted char[] for up to 4096 values           (2 bytes per id)
+//   bitmap - long[1024], a 65536-bit vector                (8 KB per container)
+//   run    - (start, length - 1) char pairs                (4 bytes per run)
+// add/remove switch between array and bitmap at 4096 values; runOptimize() turns
+// containers into runs where that is smaller. and/or/andNot work container by
+// container, mostly as word-wise long operations.
+//
+// Ids are ordered as unsigned ints, so negative ids come after the positive ones.
+// save() writes a format that map() can query in place through a MappedByteBuffer,
+// without reading the bitmap onto the heap.
+
+public class RoaringBitmap {
+
+    // Primitive iterator, so walking the set never boxes an Integer
+    public interface IntIterator {
+        boolean hasNext();
+        int next();
+    }
+
+    private static final int MAX_ARRAY = 4096;
+    private static final int WORDS = 1024;
+
+    private static final int MAGIC = 0x524F4152;        // "ROAR"
+    private static final int HEADER = 8;
+    private static final int DESCRIPTOR = 16;           // key, type, count, cardinality, offset
+    private static final short ARRAY = 0, BITMAP = 1, RUN = 2;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;                                   // number of containers
+
+    public static RoaringBitmap of(int... ids){
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for(int id : ids){
+            bitmap.add(id);
+        }
+        return bitmap;
+    }
+
+    public void add(int id){
+        char key = (char) (id >>> 16);
+        int i = findKey(key);
+        if(i >= 0){
+            containers[i] = containers[i].add((char) id);
+        } else {
+            insertAt(-i - 1, key, new ArrayContainer().add((char) id));
+        }
+    }
+
+    // Adds [from, to); whole 65536-value chunks become a single run
+    public void addRange(int from, int toExclusive){
+        for(long id = from; id < toExclusive; ){
+            char key = (char) (id >>> 16);
+            long chunkEnd = Math.min(toExclusive, ((id >>> 16) + 1) << 16);
+            int i = findKey(key);
+            if(id == (long) key << 16 && chunkEnd - id == 65536){
+                RunContainer full = new RunContainer(new char[]{0, 0xFFFF}, 1);
+                if(i >= 0) containers[i] = full;
+                else insertAt(-i - 1, key, full);
+            } else {
+                for(; id < chunkEnd; id++){
+                    add((int) id);
+                }
+            }
+            id = chunkEnd;
+        }
+    }
+
+    public void remove(int id){
+        int i = findKey((char) (id >>> 16));
+        if(i >= 0){
+            Container c = containers[i].remove((char) id);
+            if(c.cardinality() == 0){
+                System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+                System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+                containers[--size] = null;
+            } else {
+                containers[i] = c;
+            }
+        }
+    }
+
+    public boolean contains(int id){
+        int i = findKey((char) (id >>> 16));
+        return i >= 0 && containers[i].contains((char) id);
+    }
+
+    public long cardinality(){
+        long n = 0;
+        for(int i = 0; i < size; i++){
+            n += containers[i].cardinality();
+        }
+        return n;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    // Heap bytes of the containers and key array (object headers included roughly)
+    public long sizeInBytes(){
+        long bytes = 16L + 2L * keys.length + 4L * containers.length;
+        for(int i = 0; i < size; i++){
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    public static RoaringBitmap and(RoaringBitmap a, RoaringBitmap b){
+        RoaringBitmap result = new RoaringBitmap();
+        for(int i = 0, j = 0; i < a.size && j < b.size; ){
+            if(a.keys[i] < b.keys[j]) i++;
+            else if(a.keys[i] > b.keys[j]) j++;
+            else {
+                Container c = and(a.containers[i], b.containers[j]);
+                if(c.cardinality() > 0){
+                    result.append(a.keys[i], c);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public static RoaringBitmap or(RoaringBitmap a, RoaringBitmap b){
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0, j = 0;
+        while (i < a.size || j < b.size){
+            if(j == b.size || (i < a.size && a.keys[i] < b.keys[j])){
+                result.append(a.keys[i], a.containers[i++].copy());
+            } else if(i == a.size || a.keys[i] > b.keys[j]){
+                result.append(b.keys[j], b.containers[j++].copy());
+            } else {
+                result.append(a.keys[i], or(a.containers[i++], b.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    public static RoaringBitmap andNot(RoaringBitmap a, RoaringBitmap b){
+        RoaringBitmap result = new RoaringBitmap();
+        for(int i = 0, j = 0; i < a.size; i++){
+            while (j < b.size && b.keys[j] < a.keys[i]){
+                j++;
+            }
+            Container c = j < b.size && b.keys[j] == a.keys[i]
+                    ? andNot(a.containers[i], b.containers[j])
+                    : a.containers[i].copy();
+            if(c.cardinality() > 0){
+                result.append(a.keys[i], c);
+            }
+        }
+        return result;
+    }
+
+    // Size of and(a, b) without building it: no container is allocated
+    public static long andCardinality(RoaringBitmap a, RoaringBitmap b){
+        long n = 0;
+        for(int i = 0, j = 0; i < a.size && j < b.size; ){
+            if(a.keys[i] < b.keys[j]) i++;
+            else if(a.keys[i] > b.keys[j]) j++;
+            else n += andCardinality(a.containers[i++], b.containers[j++]);
+        }
+        return n;
+    }
+
+    // Re-encodes every container as array, bitmap or runs, whichever is smallest
+    public RoaringBitmap runOptimize(){
+        for(int i = 0; i < size; i++){
+            containers[i] = optimize(containers[i]);
+        }
+        return this;
+    }
+
+    public void forEach(IntConsumer action){
+        for(int i = 0; i < size; i++){
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    public IntIterator iterator(){
+        return new Itr();
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder("{");
+        forEach(id -> sb.append(sb.length() > 1 ? "," : "").append(id));
+        return sb.append('}').toString();
+    }
+
+    private int findKey(char key){
+        int lo = 0, hi = size - 1;
+        while (lo <= hi){
+            int mid = (lo + hi) >>> 1;
+            if(keys[mid] < key) lo = mid + 1;
+            else if(keys[mid] > key) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    private void insertAt(int i, char key, Container c){
+        if(size == keys.length){
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = key;
+        containers[i] = c;
+        size++;
+    }
+
+    private void append(char key, Container c){
+        insertAt(size, key, c);
+    }
+
+    // ---- container algebra ----
+
+    private static Container and(Container a, Container b){
+        if(a instanceof ArrayContainer) return ((ArrayContainer) a).filter(b, true);
+        if(b instanceof ArrayContainer) return ((ArrayContainer) b).filter(a, true);
+        long[] x = a.toBitmap().words, y = b.toBitmap().words;
+        long[] w = new long[WORDS];
+        for(int k = 0; k < WORDS; k++){
+            w[k] = x[k] & y[k];
+        }
+        return BitmapContainer.of(w).normalize();
+    }
+
+    private static int andCardinality(Container a, Container b){
+        if(rank(a) > rank(b)){
+            Container t = a;
+            a = b;
+            b = t;
+        }
+        int n = 0;
+        if(a instanceof ArrayContainer){
+            ArrayContainer x = (ArrayContainer) a;
+            if(b instanceof ArrayContainer){
+                ArrayContainer y = (ArrayContainer) b;
+                for(int i = 0, j = 0; i < x.card && j < y.card; ){
+                    if(x.values[i] < y.values[j]) i++;
+                    else if(x.values[i] > y.values[j]) j++;
+                    else {
+                        n++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else if(b instanceof RunContainer){
+                RunContainer y = (RunContainer) b;
+                for(int k = 0, r = 0; k < x.card; k++){
+                    char v = x.values[k];
+                    while (r < y.count && y.runs[2 * r] + y.runs[2 * r + 1] < v) r++;
+                    if(r == y.count) break;
+                    if(y.runs[2 * r] <= v) n++;
+                }
+            } else {
+                for(int k = 0; k < x.card; k++){
+                    if(b.contains(x.values[k])) n++;
+                }
+            }
+        } else if(a instanceof RunContainer){
+            RunContainer x = (RunContainer) a;
+            if(b instanceof RunContainer){
+                RunContainer y = (RunContainer) b;
+                for(int i = 0, j = 0; i < x.count && j < y.count; ){
+                    int xEnd = x.runs[2 * i] + x.runs[2 * i + 1], yEnd = y.runs[2 * j] + y.runs[2 * j + 1];
+                    int lo = Math.max(x.runs[2 * i], y.runs[2 * j]), hi = Math.min(xEnd, yEnd);
+                    if(lo <= hi) n += hi - lo + 1;
+                    if(xEnd < yEnd) i++;
+                    else j++;
+                }
+            } else {
+                long[] words = ((BitmapContainer) b).words;
+                for(int r = 0; r < x.count; r++){
+                    int start = x.runs[2 * r], end = start + x.runs[2 * r + 1];     // inclusive
+                    int first = start >>> 6, last = end >>> 6;
+                    long firstMask = -1L << start, lastMask = -1L >>> (63 - (end & 63));
+                    if(first == last){
+                        n += Long.bitCount(words[first] & firstMask & lastMask);
+                    } else {
+                        n += Long.bitCount(words[first] & firstMask);
+                        for(int k = first + 1; k < last; k++) n += Long.bitCount(words[k]);
+                        n += Long.bitCount(words[last] & lastMask);
+                    }
+                }
+            }
+        } else {
+            long[] x = ((BitmapContainer) a).words, y = ((BitmapContainer) b).words;
+            for(int k = 0; k < WORDS; k++){
+                n += Long.bitCount(x[k] & y[k]);
+            }
+        }
+        return n;
+    }
+
+    // array < run < bitmap, so the pairwise kernels only handle one order of each pair
+    private static int rank(Container c){
+        return c instanceof ArrayContainer ? 0 : c instanceof RunContainer ? 1 : 2;
+    }
+
+    private static Container or(Container a, Container b){
+        if(a instanceof ArrayContainer && b instanceof ArrayContainer
+                && a.cardinality() + b.cardinality() <= MAX_ARRAY){
+            return ((ArrayContainer) a).merge((ArrayContainer) b);
+        }
+        if(a.cardinality() == 65536) return a.copy();
+        if(b.cardinality() == 65536) return b.copy();
+        BitmapContainer result = a instanceof BitmapContainer ? ((BitmapContainer) a).copy() : a.toBitmap();
+        if(b instanceof ArrayContainer){
+            ArrayContainer arr = (ArrayContainer) b;
+            for(int k = 0; k < arr.card; k++){
+                result.set(arr.values[k]);
+            }
+            return result;
+        }
+        long[] y = b.toBitmap().words;
+        for(int k = 0; k < WORDS; k++){
+            result.words[k] |= y[k];
+        }
+        result.recount();
+        return result;
+    }
+
+    private static Container andNot(Container a, Container b){
+        if(a instanceof ArrayContainer) return ((ArrayContainer) a).filter(b, false);
+        long[] x = a.toBitmap().words, y = b.toBitmap().words;
+        long[] w = new long[WORDS];
+        for(int k = 0; k < WORDS; k++){
+            w[k] = x[k] & ~y[k];
+        }
+        return BitmapContainer.of(w).normalize();
+    }
+
+    private static Container optimize(Container c){
+        int card = c.cardinality();
+        int runs = c.numberOfRuns();
+        int runBytes = 2 + 4 * runs;
+        int otherBytes = card <= MAX_ARRAY ? 2 * card : 8 * WORDS;
+        if(runBytes < otherBytes){
+            if(c instanceof RunContainer) return c;
+            char[] pairs = new char[2 * runs];
+            int[] n = {-1};
+            c.forEach(0, v -> {
+                if(n[0] >= 0 && v == pairs[2 * n[0]] + pairs[2 * n[0] + 1] + 1){
+                    pairs[2 * n[0] + 1]++;
+                } else {
+                    n[0]++;
+                    pairs[2 * n[0]] = (char) v;
+                }
+            });
+            return new RunContainer(pairs, runs);
+        }
+        return c instanceof RunContainer ? c.toBitmap().normalize() : c;
+    }
+
+    private abstract static class Container {
+        abstract int cardinality();
+        abstract boolean contains(char v);
+        abstract Container add(char v);
+        abstract Container remove(char v);
+        abstract BitmapContainer toBitmap();         // may return this; never modify the result
+        abstract Container copy();
+        abstract int numberOfRuns();
+        abstract long sizeInBytes();
+        abstract void forEach(int base, IntConsumer action);
+    }
+
+    private static final class ArrayContainer extends Container {
+        char[] values = new char[4];
+        int card;
+
+        ArrayContainer(){
+        }
+
+        ArrayContainer(char[] values, int card){
+            this.values = values;
+            this.card = card;
+        }
+
+        int cardinality(){
+            return card;
+        }
+
+        boolean contains(char v){
+            return Arrays.binarySearch(values, 0, card, v) >= 0;
+        }
+
+        Container add(char v){
+            int i = Arrays.binarySearch(values, 0, card, v);
+            if(i >= 0){
+                return this;
+            }
+            if(card == MAX_ARRAY){
+                BitmapContainer b = toBitmap();
+                b.set(v);
+                return b;
+            }
+            i = -i - 1;
+            if(card == values.length){
+                values = Arrays.copyOf(values, Math.min(MAX_ARRAY, card * 2));
+            }
+            System.arraycopy(values, i, values, i + 1, card - i);
+            values[i] = v;
+            card++;
+            return this;
+        }
+
+        Container remove(char v){
+            int i = Arrays.binarySearch(values, 0, card, v);
+            if(i >= 0){
+                System.arraycopy(values, i + 1, values, i, card - i - 1);
+                card--;
+            }
+            return this;
+        }
+
+        // Values of this array that are (keep) or are not (!keep) in other
+        ArrayContainer filter(Container other, boolean keep){
+            char[] out = new char[Math.max(card, 1)];
+            int n = 0;
+            for(int k = 0; k < card; k++){
+                if(other.contains(values[k]) == keep){
+                    out[n++] = values[k];
+                }
+            }
+            return new ArrayContainer(out, n);
+        }
+
+        ArrayContainer merge(ArrayContainer other){
+            char[] out = new char[Math.max(card + other.card, 1)];
+            int i = 0, j = 0, n = 0;
+            while (i < card && j < other.card){
+                char x = values[i], y = other.values[j];
+                out[n++] = x <= y ? x : y;
+                if(x <= y) i++;
+                if(y <= x) j++;
+            }
+            while (i < card) out[n++] = values[i++];
+            while (j < other.card) out[n++] = other.values[j++];
+            return new ArrayContainer(out, n);
+        }
+
+        BitmapContainer toBitmap(){
+            BitmapContainer b = new BitmapContainer();
+            for(int k = 0; k < card; k++){
+                b.set(values[k]);
+            }
+            return b;
+        }
+
+        Container copy(){
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(card, 1)), card);
+        }
+
+        int numberOfRuns(){
+            int runs = card == 0 ? 0 : 1;
+            for(int k = 1; k < card; k++){
+                if(values[k] != values[k - 1] + 1) runs++;
+            }
+            return runs;
+        }
+
+        long sizeInBytes(){
+            return 32 + 2L * values.length;
+        }
+
+        void forEach(int base, IntConsumer action){
+            for(int k = 0; k < card; k++){
+                action.accept(base | values[k]);
+            }
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        final long[] words;
+        int card;
+
+        BitmapContainer(){
+            this.words = new long[WORDS];
+        }
+
+        private BitmapContainer(long[] words, int card){
+            this.words = words;
+            this.card = card;
+        }
+
+        static BitmapContainer of(long[] words){
+            BitmapContainer b = new BitmapContainer(words, 0);
+            b.recount();
+            return b;
+        }
+
+        void recount(){
+            int n = 0;
+            for(long w : words){
+                n += Long.bitCount(w);
+            }
+            card = n;
+        }
+
+        void set(char v){
+            long bit = 1L << v;
+            long w = words[v >>> 6];
+            if((w & bit) == 0){
+                words[v >>> 6] = w | bit;
+                card++;
+            }
+        }
+
+        Container normalize(){
+            if(card > MAX_ARRAY){
+                return this;
+            }
+            char[] out = new char[Math.max(card, 1)];
+            int[] n = {0};
+            forEach(0, v -> out[n[0]++] = (char) v);
+            return new ArrayContainer(out, card);
+        }
+
+        int cardinality(){
+            return card;
+        }
+
+        boolean contains(char v){
+            return (words[v >>> 6] & (1L << v)) != 0;
+        }
+
+        Container add(char v){
+            set(v);
+            return this;
+        }
+
+        Container remove(char v){
+            long bit = 1L << v;
+            if((words[v >>> 6] & bit) != 0){
+                words[v >>> 6] &= ~bit;
+                card--;
+            }
+            return card <= MAX_ARRAY ? normalize() : this;
+        }
+
+        BitmapContainer toBitmap(){
+            return this;
+        }
+
+        BitmapContainer copy(){
+            return new BitmapContainer(words.clone(), card);
+        }
+
+        int numberOfRuns(){
+            int runs = 0;
+            long carry = 0;
+            for(long w : words){
+                runs += Long.bitCount(w & ~((w << 1) | carry));   // set bits whose lower neighbour is clear
+                carry = w >>> 63;
+            }
+            return runs;
+        }
+
+        long sizeInBytes(){
+            return 24 + 16 + 8L * WORDS;
+        }
+
+        void forEach(int base, IntConsumer action){
+            for(int k = 0; k < WORDS; k++){
+                for(long w = words[k]; w != 0; w &= w - 1){
+                    action.accept(base | (k << 6) | Long.numberOfTrailingZeros(w));
+                }
+            }
+        }
+    }
+
+    // Immutable once built by runOptimize(); add/remove convert it back first
+    private static final class RunContainer extends Container {
+        final char[] runs;                  // start0, length0 - 1, start1, length1 - 1, ...
+        final int count;
+        final int card;
+
+        RunContainer(char[] runs, int count){
+            this.runs = runs;
+            this.count = count;
+            int n = 0;
+            for(int r = 0; r < count; r++){
+                n += runs[2 * r + 1] + 1;
+            }
+            this.card = n;
+        }
+
+        int cardinality(){
+            return card;
+        }
+
+        boolean contains(char v){
+            int lo = 0, hi = count - 1;
+            while (lo <= hi){                          // last run starting at or before v
+                int mid = (lo + hi) >>> 1;
+                if(runs[2 * mid] <= v) lo = mid + 1;
+                else hi = mid - 1;
+            }
+            return hi >= 0 && v - runs[2 * hi] <= runs[2 * hi + 1];
+        }
+
+        Container add(char v){
+            return contains(v) ? this : toBitmap().normalize().add(v);
+        }
+
+        Container remove(char v){
+            return contains(v) ? toBitmap().normalize().remove(v) : this;
+        }
+
+        BitmapContainer toBitmap(){
+            long[] words = new long[WORDS];
+            for(int r = 0; r < count; r++){
+                int start = runs[2 * r], end = start + runs[2 * r + 1];     // inclusive
+                int first = start >>> 6, last = end >>> 6;
+                long firstMask = -1L << start, lastMask = -1L >>> (63 - (end & 63));
+                if(first == last){
+                    words[first] |= firstMask & lastMask;
+                } else {
+                    words[first] |= firstMask;
+                    for(int k = first + 1; k < last; k++) words[k] = -1L;
+                    words[last] |= lastMask;
+                }
+            }
+            return new BitmapContainer(words, card);
+        }
+
+        Container copy(){
+            return this;
+        }
+
+        int numberOfRuns(){
+            return count;
+        }
+
+        long sizeInBytes(){
+            return 32 + 16 + 4L * count;
+        }
+
+        void forEach(int base, IntConsumer action){
+            for(int r = 0; r < count; r++){
+                int start = runs[2 * r], end = start + runs[2 * r + 1];
+                for(int v = start; v <= end; v++){
+                    action.accept(base | v);
+                }
+            }
+        }
+    }
+
+    private final class Itr implements IntIterator {
+        private int ci = -1;
+        private int base;
+        private Container c;
+        private int pos;                    // array index, word index or run index
+        private long word;
+        private int runValue, runEnd;
+        private int next;
+        private boolean ready;
+
+        Itr(){
+            advance();
+        }
+
+        public boolean hasNext(){
+            return ready;
+        }
+
+        public int next(){
+            if(!ready){
+                throw new NoSuchElementException();
+            }
+            int v = next;
+            advance();
+            return v;
+        }
+
+        private void advance(){
+            while (true){
+                if(c != null && step()){
+                    ready = true;
+                    return;
+                }
+                if(++ci >= size){
+                    ready = false;
+                    return;
+                }
+                c = containers[ci];
+                base = keys[ci] << 16;
+                pos = 0;
+                if(c instanceof BitmapContainer){
+                    word = ((BitmapContainer) c).words[0];
+                } else if(c instanceof RunContainer){
+                    char[] runs = ((RunContainer) c).runs;
+                    runValue = runs[0];
+                    runEnd = runs[0] + runs[1];
+                }
+            }
+        }
+
+        private boolean step(){
+            if(c instanceof ArrayContainer){
+                ArrayContainer a = (ArrayContainer) c;
+                if(pos == a.card) return false;
+                next = base | a.values[pos++];
+                return true;
+            }
+            if(c instanceof BitmapContainer){
+                long[] words = ((BitmapContainer) c).words;
+                while (word == 0){
+                    if(++pos == WORDS) return false;
+                    word = words[pos];
+                }
+                next = base | (pos << 6) | Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return true;
+            }
+            RunContainer r = (RunContainer) c;
+            if(runValue > runEnd){
+                if(++pos == r.count) return false;
+                runValue = r.runs[2 * pos];
+                runEnd = runValue + r.runs[2 * pos + 1];
+            }
+            next = base | runValue++;
+            return true;
+        }
+    }
+
+    // ---- serialization ----
+    //
+    // header      : int MAGIC, int container count
+    // descriptors : per container short key, short type, int count, int cardinality, int offset
+    // payload     : array -> count chars, bitmap -> 1024 longs, run -> count (start, length - 1) char pairs
+    // Offsets are from the start of the bitmap, so it can sit at any position in a file.
+
+    public int serializedSize(){
+        int bytes = HEADER + DESCRIPTOR * size;
+        for(int i = 0; i < size; i++){
+            bytes += payloadBytes(containers[i]);
+        }
+        return bytes;
+    }
+
+    private static int payloadBytes(Container c){
+        if(c instanceof ArrayContainer) return 2 * c.cardinality();
+        if(c instanceof BitmapContainer) return 8 * WORDS;
+        return 4 * ((RunContainer) c).count;
+    }
+
+    public void writeTo(ByteBuffer out){
+        int start = out.position();
+        out.putInt(MAGIC).putInt(size);
+        int offset = HEADER + DESCRIPTOR * size;
+        for(int i = 0; i < size; i++){
+            Container c = containers[i];
+            short type = c instanceof ArrayContainer ? ARRAY : c instanceof BitmapContainer ? BITMAP : RUN;
+            int count = type == RUN ? ((RunContainer) c).count : c.cardinality();
+            out.putShort((short) keys[i]).putShort(type).putInt(count).putInt(c.cardinality()).putInt(offset);
+            offset += payloadBytes(c);
+        }
+        for(int i = 0; i < size; i++){
+            Container c = containers[i];
+            if(c instanceof ArrayContainer){
+                ArrayContainer a = (ArrayContainer) c;
+                for(int k = 0; k < a.card; k++) out.putChar(a.values[k]);
+            } else if(c instanceof BitmapContainer){
+                for(long w : ((BitmapContainer) c).words) out.putLong(w);
+            } else {
+                RunContainer r = (RunContainer) c;
+                for(int k = 0; k < 2 * r.count; k++) out.putChar(r.runs[k]);
+            }
+        }
+        if(out.position() - start != serializedSize()){
+            throw new IllegalStateException("size mismatch");
+        }
+    }
+
+    // Reads a serialized bitmap back onto the heap
+    public static RoaringBitmap read(ByteBuffer in){
+        Mapped view = new Mapped(in);
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for(int i = 0; i < view.size; i++){
+            bitmap.append(view.key(i), view.container(i));
+        }
+        return bitmap;
+    }
+
+    public void save(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(serializedSize());
+        writeTo(buffer);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            while (buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+        }
+    }
+
+    public static Mapped map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Files.size(file));
+            return new Mapped(buffer);
+        }
+    }
+
+    // Read-only view over a serialized bitmap; queries read the buffer directly.
+    // The buffer's byte order must match the one the bitmap was written with.
+    public static final class Mapped {
+        private final ByteBuffer buf;
+        private final int size;
+
+        public Mapped(ByteBuffer buffer){
+            this.buf = buffer.slice().order(buffer.order());      // slice() resets to big-endian
+            if(buf.getInt(0) != MAGIC){
+                throw new IllegalArgumentException("Not a serialized RoaringBitmap");
+            }
+            this.size = buf.getInt(4);
+        }
+
+        private int descriptor(int i){
+            return HEADER + DESCRIPTOR * i;
+        }
+
+        private char key(int i){
+            return buf.getChar(descriptor(i));
+        }
+
+        private short type(int i){
+            return buf.getShort(descriptor(i) + 2);
+        }
+
+        private int count(int i){
+            return buf.getInt(descriptor(i) + 4);
+        }
+
+        private int offset(int i){
+            return buf.getInt(descriptor(i) + 12);
+        }
+
+        public long cardinality(){
+            long n = 0;
+            for(int i = 0; i < size; i++){
+                n += buf.getInt(descriptor(i) + 8);
+            }
+            return n;
+        }
+
+        public boolean contains(int id){
+            char key = (char) (id >>> 16), v = (char) id;
+            int lo = 0, hi = size - 1;
+            while (lo <= hi){
+                int mid = (lo + hi) >>> 1;
+                char k = key(mid);
+                if(k < key) lo = mid + 1;
+                else if(k > key) hi = mid - 1;
+                else return contains(mid, v);
+            }
+            return false;
+        }
+
+        private boolean contains(int i, char v){
+            int offset = offset(i), count = count(i);
+            switch (type(i)){
+                case ARRAY: {
+                    int lo = 0, hi = count - 1;
+                    while (lo <= hi){
+                        int mid = (lo + hi) >>> 1;
+                        char x = buf.getChar(offset + 2 * mid);
+                        if(x < v) lo = mid + 1;
+                        else if(x > v) hi = mid - 1;
+                        else return true;
+                    }
+                    return false;
+                }
+                case BITMAP:
+                    return (buf.getLong(offset + 8 * (v >>> 6)) & (1L << v)) != 0;
+                default: {
+                    int lo = 0, hi = count - 1;
+                    while (lo <= hi){
+                        int mid = (lo + hi) >>> 1;
+                        if(buf.getChar(offset + 4 * mid) <= v) lo = mid + 1;
+                        else hi = mid - 1;
+                    }
+                    return hi >= 0 && v - buf.getChar(offset + 4 * hi) <= buf.getChar(offset + 4 * hi + 2);
+                }
+            }
+        }
+
+        private Container container(int i){
+            int offset = offset(i), count = count(i);
+            switch (type(i)){
+                case ARRAY: {
+                    char[] values = new char[Math.max(count, 1)];
+                    for(int k = 0; k < count; k++) values[k] = buf.getChar(offset + 2 * k);
+                    return new ArrayContainer(values, count);
+                }
+                case BITMAP: {
+                    long[] words = new long[WORDS];
+                    for(int k = 0; k < WORDS; k++) words[k] = buf.getLong(offset + 8 * k);
+                    return new BitmapContainer(words, buf.getInt(descriptor(i) + 8));
+                }
+                default: {
+                    char[] runs = new char[2 * count];
+                    for(int k = 0; k < 2 * count; k++) runs[k] = buf.getChar(offset + 2 * k);
+                    return new RunContainer(runs, count);
+                }
+            }
+        }
+
+        public void forEach(IntConsumer action){
+            for(int i = 0; i < size; i++){
+                int base = key(i) << 16, offset = offset(i), count = count(i);
+                switch (type(i)){
+                    case ARRAY:
+                        for(int k = 0; k < count; k++){
+                            action.accept(base | buf.getChar(offset + 2 * k));
+                        }
+                        break;
+                    case BITMAP:
+                        for(int k = 0; k < WORDS; k++){
+                            for(long w = buf.getLong(offset + 8 * k); w != 0; w &= w - 1){
+                                action.accept(base | (k << 6) | Long.numberOfTrailingZeros(w));
+                            }
+                        }
+                        break;
+                    default:
+                        for(int r = 0; r < count; r++){
+                            int start = buf.getChar(offset + 4 * r), end = start + buf.getChar(offset + 4 * r + 2);
+                            for(int v = start; v <= end; v++){
+                                action.accept(base | v);
+                            }
+                        }
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        // Small sets behave like EnumSet over ids
+        RoaringBitmap weekdays = RoaringBitmap.of(1, 2, 3, 4, 5);
+        RoaringBitmap holidays = RoaringBitmap.of(5, 6, 7);
+        System.out.println("and: " + and(weekdays, holidays));
+        System.out.println("or: " + or(weekdays, holidays));
+        System.out.println("andNot: " + andNot(weekdays, holidays));
+
+        // 10 million ids: every id below 5,000,000 plus every third id up to 10,000,000
+        RoaringBitmap active = new RoaringBitmap();
+        for(int id = 0; id < 5_000_000; id++){
+            active.add(id);
+        }
+        for(int id = 5_000_000; id < 10_000_000; id += 3){
+            active.add(id);
+        }
+        RoaringBitmap premium = new RoaringBitmap();
+        for(int id = 0; id < 10_000_000; id += 7){
+            premium.add(id);
+        }
+        System.out.println("active: " + active.cardinality() + " ids, " + active.sizeInBytes() / 1024 + " KB");
+        active.runOptimize();
+        System.out.println("after runOptimize: " + active.sizeInBytes() / 1024 + " KB");
+        System.out.println("active and premium: " + andCardinality(active, premium));
+        System.out.println("active andNot premium: " + andNot(active, premium).cardinality());
+
+        long sum = 0;
+        for(IntIterator it = premium.iterator(); it.hasNext(); ){
+            sum += it.next();
+        }
+        System.out.println("sum of premium ids: " + sum);
+
+        Path file = Files.createTempFile("active", ".roaring");
+        active.save(file);
+        Mapped mapped = map(file);
+        System.out.println("mapped: " + Files.size(file) / 1024 + " KB on disk, "
+                + mapped.cardinality() + " ids, contains 5000001? " + mapped.contains(5_000_001)
+                + ", contains 5000003? " + mapped.contains(5_000_003));
+        Files.delete(file);
+    }
+}
+
+/* Output : ->
+and: {5}
+or: {1,2,3,4,5,6,7}
+andNot: {1,2,3,4}
+active: 6666667 ids, 1231 KB
+after runOptimize: 624 KB
+active and premium: 952381
+active andNot premium: 5714286
+sum of premium ids: 7142857857142
+mapped: 618 KB on disk, 6666667 ids, contains 5000001? false, contains 5000003? true
+ */
@@ -0,0 +1,518 @@
+package Code.Stream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// streamSorting's sorted() for data bigger than the heap. The input is cut into chunks
+// that fit the memory budget; each chunk is sorted and written to a temp file as a
+// run (on up to `parallelism` threads while the next chunk is read). The runs are
+// then merged with a loser tree, which finds the next smallest of k run heads with
+// log2(k) comparisons, and the result is returned as a lazy Stream<T>. More than
+// MAX_FAN_IN runs are first merged in passes. Input that fits in one chunk is sorted
+// in memory without touching disk.
+//
+// Order comes from a Comparator, or from a binary key: keyEncoder turns a record into
+// bytes whose unsigned order is the sort order. The key is computed once per record,
+// stored in the run next to it, and compared with a byte loop, never re-derived.
+// Closing the returned stream (or reading it to the end) deletes the temp files.
+
+public class ExternalSort<T> {
+
+    // Reads and writes one record in a run file
+    public interface Codec<T> {
+        void write(DataOutput out, T value) throws IOException;
+        T read(DataInput in) throws IOException;
+    }
+
+    public static final Codec<String> STRING = new Codec<String>() {
+        public void write(DataOutput out, String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        public String read(DataInput in) throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    static final int MAX_FAN_IN = 64;
+    static final int IO_BUFFER = 64 * 1024;
+
+    private final Codec<T> codec;
+    private final Comparator<? super T> comparator;
+    private final Function<? super T, byte[]> keyEncoder;
+    private long memoryBudget = 64L << 20;
+    private int parallelism = 1;
+    private Path tempDir;
+    private ToLongFunction<? super T> sizeEstimator = ExternalSort::estimateSize;
+    private int runsWritten;
+
+    public ExternalSort(Codec<T> codec, Comparator<? super T> comparator){
+        this(codec, comparator, null);
+    }
+
+    private ExternalSort(Codec<T> codec, Comparator<? super T> comparator, Function<? super T, byte[]> keyEncoder){
+        this.codec = codec;
+        this.comparator = comparator;
+        this.keyEncoder = keyEncoder;
+    }
+
+    // Sorts by the unsigned lexicographic order of keyEncoder(record)
+    public static <T> ExternalSort<T> byKey(Codec<T> codec, Function<? super T, byte[]> keyEncoder){
+        return new ExternalSort<>(codec, null, keyEncoder);
+    }
+
+    // Bytes of heap the in-memory chunks may use in total
+    public ExternalSort<T> memoryBudget(long bytes){
+        this.memoryBudget = bytes;
+        return this;
+    }
+
+    public ExternalSort<T> parallelism(int threads){
+        this.parallelism = Math.max(1, threads);
+        return this;
+    }
+
+    public ExternalSort<T> tempDir(Path dir){
+        this.tempDir = dir;
+        return this;
+    }
+
+    public ExternalSort<T> sizeEstimator(ToLongFunction<? super T> estimator){
+        this.sizeEstimator = estimator;
+        return this;
+    }
+
+    // Number of run files written by the last sort(), merge passes included
+    public int runsWritten(){
+        return runsWritten;
+    }
+
+    static long estimateSize(Object value){
+        if(value instanceof String){
+            return 40 + 2L * ((String) value).length();
+        }
+        return 64;
+    }
+
+    public Stream<T> sort(Stream<T> input){
+        try {
+            return sort(input.iterator());
+        } finally {
+            input.close();
+        }
+    }
+
+    public Stream<T> sort(Iterator<T> input){
+        runsWritten = 0;
+        // parallelism chunks being sorted/written plus the one being read fit the budget
+        long chunkBudget = Math.max(1, memoryBudget / (parallelism + 1));
+        List<Item<T>> chunk = nextChunk(input, chunkBudget);
+        if(!input.hasNext()){
+            sortChunk(chunk);
+            return chunk.stream().map(item -> item.value);
+        }
+
+        Path dir = null;
+        List<Path> runs = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            dir = tempDir == null ? Files.createTempDirectory("extsort") : Files.createTempDirectory(tempDir, "extsort");
+            Semaphore inFlight = new Semaphore(parallelism);
+            ExecutorCompletionService<Path> completed = new ExecutorCompletionService<>(pool);
+            List<Future<Path>> pending = new ArrayList<>();
+            while (!chunk.isEmpty()){
+                List<Item<T>> toWrite = chunk;
+                Path file = dir.resolve("run-" + runsWritten++);
+                inFlight.acquire();
+                pending.add(completed.submit(() -> {
+                    try {
+                        sortChunk(toWrite);
+                        writeRun(file, toWrite.iterator(), toWrite.size());
+                        return file;
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+                // Stop reading input as soon as any run has failed
+                for(Future<Path> done = completed.poll(); done != null; done = completed.poll()){
+                    done.get();
+                }
+                chunk = nextChunk(input, chunkBudget);
+            }
+            for(Future<Path> f : pending){
+                runs.add(f.get());
+            }
+
+            // Merge passes until one loser tree can take all runs
+            while (runs.size() > MAX_FAN_IN){
+                List<Path> merged = new ArrayList<>();
+                for(int from = 0; from < runs.size(); from += MAX_FAN_IN){
+                    List<Path> group = runs.subList(from, Math.min(runs.size(), from + MAX_FAN_IN));
+                    Path file = dir.resolve("run-" + runsWritten++);
+                    try (Merger<T> merger = new Merger<>(this, group)){
+                        writeRun(file, merger, merger.total);
+                    }
+                    for(Path p : group){
+                        Files.delete(p);
+                    }
+                    merged.add(file);
+                }
+                runs = merged;
+            }
+
+            Merger<T> merger = new Merger<>(this, runs);
+            Path directory = dir;
+            Runnable cleanup = () -> {
+                merger.close();
+                deleteAll(directory);
+            };
+            merger.onExhausted = cleanup;
+            return StreamSupport.stream(Spliterators.spliterator(
+                    new ValueIterator<>(merger), merger.total, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(cleanup);
+        } catch (IOException e) {
+            abort(pool, dir);
+            throw new UncheckedIOException(e);
+        } catch (ExecutionException e) {
+            abort(pool, dir);
+            Throwable cause = e.getCause();
+            if(cause instanceof IOException){
+                throw new UncheckedIOException((IOException) cause);
+            }
+            if(cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("External sort failed", cause);
+        } catch (InterruptedException e) {
+            abort(pool, dir);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("External sort interrupted", e);
+        } catch (RuntimeException | Error e) {
+            abort(pool, dir);
+            throw e;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Stops the run writers still in flight before their directory is removed
+    private static void abort(ExecutorService pool, Path dir){
+        pool.shutdownNow();
+        deleteAll(dir);
+    }
+
+    private List<Item<T>> nextChunk(Iterator<T> input, long budget){
+        List<Item<T>> chunk = new ArrayList<>();
+        long used = 0;
+        while (used < budget && input.hasNext()){
+            T value = input.next();
+            byte[] key = keyEncoder == null ? null : keyEncoder.apply(value);
+            chunk.add(new Item<>(key, value));
+            used += sizeEstimator.applyAsLong(value) + 32 + (key == null ? 0 : 16 + key.length);
+        }
+        return chunk;
+    }
+
+    private void sortChunk(List<Item<T>> chunk){
+        chunk.sort(this::compare);          // stable, so equal records keep input order
+    }
+
+    int compare(Item<T> a, Item<T> b){
+        return keyEncoder == null ? comparator.compare(a.value, b.value) : compareUnsigned(a.key, b.key);
+    }
+
+    static int compareUnsigned(byte[] a, byte[] b){
+        int n = Math.min(a.length, b.length);
+        for(int i = 0; i < n; i++){
+            if(a[i] != b[i]){
+                return (a[i] & 0xFF) - (b[i] & 0xFF);
+            }
+        }
+        return a.length - b.length;
+    }
+
+    // Run file: long count, then per record [int key length, key bytes] (key mode only) and the record
+    private void writeRun(Path file, Iterator<Item<T>> items, long count) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), IO_BUFFER))){
+            out.writeLong(count);
+            while (items.hasNext()){
+                Item<T> item = items.next();
+                if(keyEncoder != null){
+                    out.writeInt(item.key.length);
+                    out.write(item.key);
+                }
+                codec.write(out, item.value);
+            }
+        }
+    }
+
+    private static void deleteAll(Path dir){
+        if(dir == null){
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)){
+            for(Path p : files.collect(Collectors.toList())){
+                Files.deleteIfExists(p);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException ignored) {
+            // temp files, best effort
+        }
+    }
+
+    static final class Item<T> {
+        final byte[] key;
+        final T value;
+
+        Item(byte[] key, T value){
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final class RunReader<T> {
+        final DataInputStream in;
+        long remaining;
+        Item<T> head;
+
+        RunReader(Path file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(
+                    Channels.newInputStream(FileChannel.open(file, StandardOpenOption.READ)), IO_BUFFER));
+            remaining = in.readLong();
+        }
+
+        // Loads the next record into head; false at end of run
+        boolean advance(ExternalSort<T> sort) throws IOException {
+            if(remaining == 0){
+                head = null;
+                return false;
+            }
+            remaining--;
+            byte[] key = null;
+            if(sort.keyEncoder != null){
+                key = new byte[in.readInt()];
+                in.readFully(key);
+            }
+            head = new Item<>(key, sort.codec.read(in));
+            return true;
+        }
+    }
+
+    // k-way merge with a loser tree: tree[1..k-1] hold the loser of each match,
+    // tree[0] the overall winner. Replacing the winner's record replays only the
+    // matches on its path to the root. Ties go to the lower run, so the merge is stable.
+    private static final class Merger<T> implements Iterator<Item<T>>, AutoCloseable {
+        private final ExternalSort<T> sort;
+        private final RunReader<T>[] runs;
+        private final int[] tree;
+        private final int k;
+        final long total;
+        Runnable onExhausted;
+        private boolean closed;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Merger(ExternalSort<T> sort, List<Path> files) throws IOException {
+            this.sort = sort;
+            this.k = files.size();
+            this.runs = new RunReader[k];
+            long n = 0;
+            try {
+                for(int i = 0; i < k; i++){
+                    runs[i] = new RunReader<>(files.get(i));
+                    n += runs[i].remaining;
+                    runs[i].advance(sort);
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+            this.total = n;
+            this.tree = new int[k];
+            Arrays.fill(tree, k);           // k = sentinel that beats everyone
+            for(int i = k - 1; i >= 0; i--){
+                adjust(i);
+            }
+        }
+
+        // True if run a's head comes before run b's head
+        private boolean beats(int a, int b){
+            if(a == k) return true;
+            if(b == k) return false;
+            Item<T> x = runs[a].head, y = runs[b].head;
+            if(x == null) return false;
+            if(y == null) return true;
+            int c = sort.compare(x, y);
+            return c < 0 || (c == 0 && a < b);
+        }
+
+        private void adjust(int s){
+            for(int t = (s + k) / 2; t > 0; t /= 2){
+                if(beats(tree[t], s)){
+                    int loser = s;
+                    s = tree[t];
+                    tree[t] = loser;
+                }
+            }
+            tree[0] = s;
+        }
+
+        @Override
+        public boolean hasNext(){
+            boolean more = k > 0 && runs[tree[0]].head != null;
+            if(!more && onExhausted != null){
+                onExhausted.run();
+            }
+            return more;
+        }
+
+        @Override
+        public Item<T> next(){
+            if(!hasNext()){
+                throw new NoSuchElementException();
+            }
+            int w = tree[0];
+            Item<T> item = runs[w].head;
+            try {
+                runs[w].advance(sort);
+            } catch (EOFException e) {
+                throw new IllegalStateException("Truncated run file", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            adjust(w);
+            return item;
+        }
+
+        @Override
+        public void close(){
+            if(closed){
+                return;
+            }
+            closed = true;
+            for(RunReader<T> r : runs){
+                if(r != null){
+                    try {
+                        r.in.close();
+                    } catch (IOException ignored) {
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class ValueIterator<T> implements Iterator<T> {
+        private final Iterator<Item<T>> items;
+
+        ValueIterator(Iterator<Item<T>> items){
+            this.items = items;
+        }
+
+        public boolean hasNext(){
+            return items.hasNext();
+        }
+
+        public T next(){
+            return items.next().value;
+        }
+    }
+
+    // Descending order as a binary key, the same encoding as ByteComparableKey in the
+    // Collections module. Plain UTF-8 would not do: it orders supplementary characters
+    // by code point (U+1F600 after U+FFFF) where compareTo() compares UTF-16 chars, and
+    // an inverted NUL would equal the terminator. So every UTF-16 char is encoded on
+    // its own, c + 1 below 0x80 and the 2/3-byte UTF-8 forms above, then a 0x00
+    // terminator so "RK" comes before "RKV"; inverting every byte reverses the order.
+    static byte[] descendingKey(String s){
+        int length = 1;
+        for(int i = 0; i < s.length(); i++){
+            char c = s.charAt(i);
+            length += c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+        }
+        byte[] key = new byte[length];
+        int p = 0;
+        for(int i = 0; i < s.length(); i++){
+            char c = s.charAt(i);
+            if(c < 0x80){
+                key[p++] = (byte) ~(c + 1);
+            } else if(c < 0x800){
+                key[p++] = (byte) ~(0xC0 | (c >> 6));
+                key[p++] = (byte) ~(0x80 | (c & 0x3F));
+            } else {
+                key[p++] = (byte) ~(0xE0 | (c >> 12));
+                key[p++] = (byte) ~(0x80 | ((c >> 6) & 0x3F));
+                key[p++] = (byte) ~(0x80 | (c & 0x3F));
+            }
+        }
+        key[p] = (byte) 0xFF;       // inverted terminator
+        return key;
+    }
+
+    public static void main(String [] args){
+        List<String> al = Arrays.asList("rvk", "rkv", "abc", "say");
+
+        // streamSorting's customized (descending) sort, with a budget so small every record is its own run
+        ExternalSort<String> descending = new ExternalSort<>(STRING, (s1, s2) -> -s1.compareTo(s2)).memoryBudget(1);
+        try (Stream<String> sorted = descending.sort(al.stream().map(String::toUpperCase))){
+            System.out.println(sorted.collect(Collectors.toList()) + " from " + descending.runsWritten() + " runs");
+        }                                                   // [SAY, RVK, RKV, ABC] from 4 runs
+
+        // Same order from a binary key
+        ExternalSort<String> byKey = byKey(STRING, ExternalSort::descendingKey).memoryBudget(1);
+        try (Stream<String> sorted = byKey.sort(al.stream().map(String::toUpperCase))){
+            System.out.println(sorted.collect(Collectors.toList()));
+        }                                                   // [SAY, RVK, RKV, ABC]
+
+        // 2 million random strings, 16 MB budget shared by 4 sorting threads
+        Random random = new Random(42);
+        ExternalSort<String> big = new ExternalSort<>(STRING, Comparator.<String>naturalOrder())
+                .memoryBudget(16L << 20).parallelism(4);
+        try (Stream<String> sorted = big.sort(Stream.generate(() -> Long.toString(random.nextLong() & Long.MAX_VALUE, 36))
+                .limit(2_000_000))){
+            String[] previous = {""};
+            long outOfOrder = sorted.filter(s -> {
+                boolean bad = s.compareTo(previous[0]) < 0;
+                previous[0] = s;
+                return bad;
+            }).count();
+            System.out.println("runs: " + big.runsWritten() + ", out of order: " + outOfOrder);
+        }                                                   // runs: 58, out of order: 0
+    }
+}
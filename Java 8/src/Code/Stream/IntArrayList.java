@@ -0,0 +1,183 @@
+package Code.Stream;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+// ArrayList<Integer> without the Integer: a growable int[] whose stream() is an
+// IntStream over the backing array, so filter/map/sorted/sum run on ints from the
+// source to the sink. Collect back with collect(...) / IntArrayList::addAll, or count
+// small values straight into an int[] with countByValue, no boxing anywhere.
+// stream() is SIZED and SUBSIZED, so parallelStream() splits it evenly.
+
+public class IntArrayList {
+
+    private int[] data;
+    private int size;
+
+    public IntArrayList(){
+        this(10);
+    }
+
+    public IntArrayList(int initialCapacity){
+        data = new int[initialCapacity];
+    }
+
+    public static IntArrayList of(int... values){
+        IntArrayList list = new IntArrayList(values.length);
+        list.addAll(values);
+        return list;
+    }
+
+    // Terminal operation into a list: stream.collect(IntArrayList::new, IntArrayList::add, IntArrayList::addAll)
+    public static IntArrayList collect(IntStream stream){
+        return stream.collect(IntArrayList::new, IntArrayList::add, IntArrayList::addAll);
+    }
+
+    // Histogram of values in [0, bound) straight into an int[] (parallel streams merge per-chunk arrays)
+    public static int[] countByValue(IntStream stream, int bound){
+        return stream.collect(() -> new int[bound], (counts, v) -> counts[v]++, (a, b) -> {
+            for(int i = 0; i < bound; i++){
+                a[i] += b[i];
+            }
+        });
+    }
+
+    public void add(int value){
+        if(size == data.length){
+            grow(size + 1);
+        }
+        data[size++] = value;
+    }
+
+    public void addAll(int[] values){
+        addAll(values, 0, values.length);
+    }
+
+    public void addAll(int[] values, int from, int to){
+        int n = to - from;
+        if(size + n > data.length){
+            grow(size + n);
+        }
+        System.arraycopy(values, from, data, size, n);
+        size += n;
+    }
+
+    public void addAll(IntArrayList other){
+        addAll(other.data, 0, other.size);
+    }
+
+    public int get(int index){
+        checkIndex(index);
+        return data[index];
+    }
+
+    public int set(int index, int value){
+        checkIndex(index);
+        int old = data[index];
+        data[index] = value;
+        return old;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public void clear(){
+        size = 0;
+    }
+
+    // Keeps the elements for which filter is false, in place
+    public boolean removeIf(IntPredicate filter){
+        int kept = 0;
+        for(int i = 0; i < size; i++){
+            if(!filter.test(data[i])){
+                data[kept++] = data[i];
+            }
+        }
+        boolean removed = kept != size;
+        size = kept;
+        return removed;
+    }
+
+    public void sort(){
+        Arrays.sort(data, 0, size);
+    }
+
+    public void forEach(IntConsumer action){
+        for(int i = 0; i < size; i++){
+            action.accept(data[i]);
+        }
+    }
+
+    public IntStream stream(){
+        return Arrays.stream(data, 0, size);
+    }
+
+    public IntStream parallelStream(){
+        return stream().parallel();
+    }
+
+    public int[] toArray(){
+        return Arrays.copyOf(data, size);
+    }
+
+    public void trimToSize(){
+        if(size < data.length){
+            data = Arrays.copyOf(data, size);
+        }
+    }
+
+    private void grow(int minCapacity){
+        int capacity = Math.max(minCapacity, data.length + (data.length >> 1) + 1);
+        if(capacity < 0){
+            throw new OutOfMemoryError("IntArrayList too large");
+        }
+        data = Arrays.copyOf(data, capacity);
+    }
+
+    private void checkIndex(int index){
+        if(index < 0 || index >= size){
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder("[");
+        for(int i = 0; i < size; i++){
+            if(i > 0) sb.append(", ");
+            sb.append(data[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    public static void main(String [] args){
+        // streamCount / streamEvenNumber without boxing
+        IntArrayList l1 = new IntArrayList();
+        for (int i=0;i<10;i++){
+            l1.add(i);
+        }
+        System.out.println(l1);                 // [0, 1, 2, 3, 4, 5, 6, 7, 8, 9]
+        IntArrayList l2 = collect(l1.stream().filter(i->i%2==0));
+        System.out.println(l2);                 // [0, 2, 4, 6, 8]
+        System.out.println(l1.stream().filter(i->i%2==0).count());     // 5
+
+        // streamMinMax
+        IntArrayList l3 = IntArrayList.of(0, 10, 15, 5, 25, 20);
+        System.out.println(collect(l3.stream().map(i->i+10)));        // [10, 20, 25, 15, 35, 30]
+        System.out.println(collect(l3.stream().sorted()));            // [0, 5, 10, 15, 20, 25]
+        System.out.println(l3.stream().min().getAsInt() + " " + l3.stream().max().getAsInt());   // 0 25
+
+        // 10 million ids, parallel, into a primitive histogram of last digits
+        IntArrayList ids = collect(IntStream.range(0, 10_000_000));
+        int[] lastDigit = countByValue(ids.parallelStream().map(i -> i % 10), 10);
+        System.out.println(Arrays.toString(lastDigit));
+        // [1000000, 1000000, 1000000, 1000000, 1000000, 1000000, 1000000, 1000000, 1000000, 1000000]
+    }
+}
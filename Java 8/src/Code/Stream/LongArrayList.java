@@ -0,0 +1,155 @@
+package Code.Stream;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+
+// long counterpart of IntArrayList: a growable long[] streamed as a LongStream
+
+public class LongArrayList {
+
+    private long[] data;
+    private int size;
+
+    public LongArrayList(){
+        this(10);
+    }
+
+    public LongArrayList(int initialCapacity){
+        data = new long[initialCapacity];
+    }
+
+    public static LongArrayList of(long... values){
+        LongArrayList list = new LongArrayList(values.length);
+        list.addAll(values);
+        return list;
+    }
+
+    // Terminal operation into a list: stream.collect(LongArrayList::new, LongArrayList::add, LongArrayList::addAll)
+    public static LongArrayList collect(LongStream stream){
+        return stream.collect(LongArrayList::new, LongArrayList::add, LongArrayList::addAll);
+    }
+
+    public void add(long value){
+        if(size == data.length){
+            grow(size + 1);
+        }
+        data[size++] = value;
+    }
+
+    public void addAll(long[] values){
+        addAll(values, 0, values.length);
+    }
+
+    public void addAll(long[] values, int from, int to){
+        int n = to - from;
+        if(size + n > data.length){
+            grow(size + n);
+        }
+        System.arraycopy(values, from, data, size, n);
+        size += n;
+    }
+
+    public void addAll(LongArrayList other){
+        addAll(other.data, 0, other.size);
+    }
+
+    public long get(int index){
+        checkIndex(index);
+        return data[index];
+    }
+
+    public long set(int index, long value){
+        checkIndex(index);
+        long old = data[index];
+        data[index] = value;
+        return old;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public void clear(){
+        size = 0;
+    }
+
+    // Keeps the elements for which filter is false, in place
+    public boolean removeIf(LongPredicate filter){
+        int kept = 0;
+        for(int i = 0; i < size; i++){
+            if(!filter.test(data[i])){
+                data[kept++] = data[i];
+            }
+        }
+        boolean removed = kept != size;
+        size = kept;
+        return removed;
+    }
+
+    public void sort(){
+        Arrays.sort(data, 0, size);
+    }
+
+    public void forEach(LongConsumer action){
+        for(int i = 0; i < size; i++){
+            action.accept(data[i]);
+        }
+    }
+
+    public LongStream stream(){
+        return Arrays.stream(data, 0, size);
+    }
+
+    public LongStream parallelStream(){
+        return stream().parallel();
+    }
+
+    public long[] toArray(){
+        return Arrays.copyOf(data, size);
+    }
+
+    public void trimToSize(){
+        if(size < data.length){
+            data = Arrays.copyOf(data, size);
+        }
+    }
+
+    private void grow(int minCapacity){
+        int capacity = Math.max(minCapacity, data.length + (data.length >> 1) + 1);
+        if(capacity < 0){
+            throw new OutOfMemoryError("LongArrayList too large");
+        }
+        data = Arrays.copyOf(data, capacity);
+    }
+
+    private void checkIndex(int index){
+        if(index < 0 || index >= size){
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder("[");
+        for(int i = 0; i < size; i++){
+            if(i > 0) sb.append(", ");
+            sb.append(data[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    public static void main(String [] args){
+        LongArrayList timestamps = LongArrayList.of(1_700_000_000_000L, 1_700_000_500_000L, 1_699_999_000_000L);
+        timestamps.sort();
+        System.out.println(timestamps);                        // [1699999000000, 1700000000000, 1700000500000]
+        System.out.println(collect(timestamps.stream().map(t -> t / 1000)));   // [1699999000, 1700000000, 1700000500]
+        LongArrayList big = collect(LongStream.rangeClosed(1, 10_000_000));
+        System.out.println(big.parallelStream().sum());           // 50000005000000
+    }
+}
@@ -0,0 +1,457 @@
+package Code.Stream;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+
+// streamMinMax walks the list once for count, once for sorted, once for min and once
+// for max. This collects everything in a single pass: count, min, max, sum, mean,
+// variance and approximate quantiles. Like IntSummaryStatistics it is a consumer with
+// a combine(), so parallelStream() builds one per chunk and merges them.
+//
+// Mean and variance use Welford's update and Chan's formula to merge. Quantiles come
+// from a KLL-style sketch: level h holds items that each stand for 2^h inputs, and a
+// full level is sorted and every other item moves up one level. With the default
+// k = 200 the rank error stays around 1% using a few KB, however long the stream.
+// OfComparable does count/min/max/quantiles for any Comparable or Comparator.
+
+public class SummaryStatistics implements IntConsumer, LongConsumer, DoubleConsumer {
+
+    static final int DEFAULT_K = 200;
+
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sum;
+    private double sumCompensation;         // Kahan summation, as DoubleSummaryStatistics does
+    private long longSum;                   // exact while only int/long values are added
+    private boolean integral = true;
+    private double mean;
+    private double m2;                      // sum of squared differences from the mean
+    private final DoubleSketch sketch;
+
+    public SummaryStatistics(){
+        this(DEFAULT_K);
+    }
+
+    public SummaryStatistics(int k){
+        this.sketch = new DoubleSketch(k);
+    }
+
+    public static <T> Collector<T, ?, SummaryStatistics> summarizingInt(ToIntFunction<? super T> mapper){
+        return Collector.of(SummaryStatistics::new,
+                (stats, t) -> stats.accept(mapper.applyAsInt(t)),
+                SummaryStatistics::combine,
+                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T> Collector<T, ?, SummaryStatistics> summarizingLong(ToLongFunction<? super T> mapper){
+        return Collector.of(SummaryStatistics::new,
+                (stats, t) -> stats.accept(mapper.applyAsLong(t)),
+                SummaryStatistics::combine,
+                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T> Collector<T, ?, SummaryStatistics> summarizingDouble(ToDoubleFunction<? super T> mapper){
+        return Collector.of(SummaryStatistics::new,
+                (stats, t) -> stats.accept(mapper.applyAsDouble(t)),
+                SummaryStatistics::combine,
+                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+
+    @Override
+    public void accept(int value){
+        accept((long) value);
+    }
+
+    @Override
+    public void accept(long value){
+        longSum += value;
+        add(value);
+    }
+
+    @Override
+    public void accept(double value){
+        integral = false;
+        add(value);
+    }
+
+    private void add(double value){
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        kahan(value);
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        sketch.update(value);
+    }
+
+    private void kahan(double value){
+        double y = value - sumCompensation;
+        double t = sum + y;
+        sumCompensation = (t - sum) - y;
+        sum = t;
+    }
+
+    // Merges other into this; other must not be used afterwards
+    public SummaryStatistics combine(SummaryStatistics other){
+        if(other.count == 0){
+            return this;
+        }
+        long n = count + other.count;
+        double delta = other.mean - mean;
+        m2 += other.m2 + delta * delta * count * other.count / n;
+        mean += delta * other.count / n;
+        count = n;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        kahan(other.sum);
+        kahan(-other.sumCompensation);
+        longSum += other.longSum;
+        integral &= other.integral;
+        sketch.merge(other.sketch);
+        return this;
+    }
+
+    public long getCount(){
+        return count;
+    }
+
+    public double getMin(){
+        return min;
+    }
+
+    public double getMax(){
+        return max;
+    }
+
+    public double getSum(){
+        return integral ? longSum : sum - sumCompensation;
+    }
+
+    // Exact sum when only int/long values were accepted
+    public long getLongSum(){
+        return longSum;
+    }
+
+    public double getMean(){
+        return count == 0 ? 0 : mean;
+    }
+
+    // Population variance; getSampleVariance() divides by n - 1
+    public double getVariance(){
+        return count == 0 ? 0 : m2 / count;
+    }
+
+    public double getSampleVariance(){
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+
+    public double getStandardDeviation(){
+        return Math.sqrt(getVariance());
+    }
+
+    // Approximate value at quantile q in [0, 1]; exact min and max at the ends
+    public double quantile(double q){
+        if(count == 0){
+            return Double.NaN;
+        }
+        if(q <= 0) return min;
+        if(q >= 1) return max;
+        return sketch.quantile(q);
+    }
+
+    public double median(){
+        return quantile(0.5);
+    }
+
+    @Override
+    public String toString(){
+        return String.format("count=%d, min=%s, max=%s, sum=%s, mean=%.2f, variance=%.2f, median=%s",
+                count, min, max, getSum(), getMean(), getVariance(), median());
+    }
+
+    // Count, min, max and quantiles for any ordered type
+    public static class OfComparable<T> implements Consumer<T> {
+        private final Comparator<? super T> comparator;
+        private final ObjectSketch<T> sketch;
+        private long count;
+        private T min;
+        private T max;
+
+        public OfComparable(Comparator<? super T> comparator){
+            this(comparator, DEFAULT_K);
+        }
+
+        public OfComparable(Comparator<? super T> comparator, int k){
+            this.comparator = comparator;
+            this.sketch = new ObjectSketch<>(k, comparator);
+        }
+
+        public static <T> Collector<T, ?, OfComparable<T>> collector(Comparator<? super T> comparator){
+            return Collector.of(() -> new OfComparable<T>(comparator), OfComparable::accept, OfComparable::combine,
+                    Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+        }
+
+        public static <T extends Comparable<? super T>> Collector<T, ?, OfComparable<T>> collector(){
+            return collector(Comparator.<T>naturalOrder());
+        }
+
+        @Override
+        public void accept(T value){
+            count++;
+            if(min == null || comparator.compare(value, min) < 0) min = value;
+            if(max == null || comparator.compare(value, max) > 0) max = value;
+            sketch.update(value);
+        }
+
+        public OfComparable<T> combine(OfComparable<T> other){
+            if(other.count == 0){
+                return this;
+            }
+            if(min == null || comparator.compare(other.min, min) < 0) min = other.min;
+            if(max == null || comparator.compare(other.max, max) > 0) max = other.max;
+            count += other.count;
+            sketch.merge(other.sketch);
+            return this;
+        }
+
+        public long getCount(){
+            return count;
+        }
+
+        public T getMin(){
+            return min;
+        }
+
+        public T getMax(){
+            return max;
+        }
+
+        public T quantile(double q){
+            if(count == 0) return null;
+            if(q <= 0) return min;
+            if(q >= 1) return max;
+            return sketch.quantile(q);
+        }
+
+        @Override
+        public String toString(){
+            return "count=" + count + ", min=" + min + ", max=" + max + ", median=" + quantile(0.5);
+        }
+    }
+
+    // Compactor levels of doubles; level h items weigh 2^h
+    private static final class DoubleSketch {
+        private final int k;
+        private double[][] levels = new double[1][];
+        private int[] sizes = new int[1];
+        private boolean[] flip = new boolean[1];
+
+        DoubleSketch(int k){
+            this.k = Math.max(k, 8);
+            levels[0] = new double[this.k];
+        }
+
+        void update(double value){
+            add(0, value);
+            if(sizes[0] >= k){
+                compact(0);
+            }
+        }
+
+        private void add(int h, double value){
+            if(h == levels.length){
+                levels = Arrays.copyOf(levels, h + 1);
+                sizes = Arrays.copyOf(sizes, h + 1);
+                flip = Arrays.copyOf(flip, h + 1);
+                levels[h] = new double[k];
+            }
+            if(sizes[h] == levels[h].length){
+                levels[h] = Arrays.copyOf(levels[h], sizes[h] * 2);
+            }
+            levels[h][sizes[h]++] = value;
+        }
+
+        // Sorts level h and promotes every other item; an odd item out stays behind
+        private void compact(int h){
+            double[] items = levels[h];
+            int n = sizes[h];
+            Arrays.sort(items, 0, n);
+            int pairs = n & ~1;
+            int offset = flip[h] ? 1 : 0;           // alternate which half survives, so errors cancel
+            flip[h] = !flip[h];
+            for(int i = offset; i < pairs; i += 2){
+                add(h + 1, items[i]);
+            }
+            items[0] = items[n - 1];
+            sizes[h] = n - pairs;
+            if(sizes[h + 1] >= k){
+                compact(h + 1);
+            }
+        }
+
+        void merge(DoubleSketch other){
+            for(int h = 0; h < other.levels.length; h++){
+                for(int i = 0; i < other.sizes[h]; i++){
+                    add(h, other.levels[h][i]);
+                }
+            }
+            for(int h = 0; h < levels.length; h++){
+                if(sizes[h] >= k){
+                    compact(h);
+                }
+            }
+        }
+
+        double quantile(double q){
+            int total = 0;
+            for(int s : sizes) total += s;
+            double[] values = new double[total];
+            long[] weights = new long[total];
+            Integer[] order = new Integer[total];
+            long weightSum = 0;
+            for(int h = 0, p = 0; h < levels.length; h++){
+                for(int i = 0; i < sizes[h]; i++, p++){
+                    values[p] = levels[h][i];
+                    weights[p] = 1L << h;
+                    order[p] = p;
+                    weightSum += weights[p];
+                }
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+            double target = q * weightSum;
+            long cumulative = 0;
+            for(int i : order){
+                cumulative += weights[i];
+                if(cumulative >= target){
+                    return values[i];
+                }
+            }
+            return values[order[total - 1]];
+        }
+    }
+
+    // Same compactor for objects ordered by a Comparator
+    private static final class ObjectSketch<T> {
+        private final int k;
+        private final Comparator<? super T> comparator;
+        private Object[][] levels = new Object[1][];
+        private int[] sizes = new int[1];
+        private boolean[] flip = new boolean[1];
+
+        ObjectSketch(int k, Comparator<? super T> comparator){
+            this.k = Math.max(k, 8);
+            this.comparator = comparator;
+            levels[0] = new Object[this.k];
+        }
+
+        void update(T value){
+            add(0, value);
+            if(sizes[0] >= k){
+                compact(0);
+            }
+        }
+
+        private void add(int h, Object value){
+            if(h == levels.length){
+                levels = Arrays.copyOf(levels, h + 1);
+                sizes = Arrays.copyOf(sizes, h + 1);
+                flip = Arrays.copyOf(flip, h + 1);
+                levels[h] = new Object[k];
+            }
+            if(sizes[h] == levels[h].length){
+                levels[h] = Arrays.copyOf(levels[h], sizes[h] * 2);
+            }
+            levels[h][sizes[h]++] = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void compact(int h){
+            Object[] items = levels[h];
+            int n = sizes[h];
+            Arrays.sort(items, 0, n, (a, b) -> comparator.compare((T) a, (T) b));
+            int pairs = n & ~1;
+            int offset = flip[h] ? 1 : 0;
+            flip[h] = !flip[h];
+            for(int i = offset; i < pairs; i += 2){
+                add(h + 1, items[i]);
+            }
+            items[0] = items[n - 1];
+            Arrays.fill(items, n - pairs, n, null);
+            sizes[h] = n - pairs;
+            if(sizes[h + 1] >= k){
+                compact(h + 1);
+            }
+        }
+
+        void merge(ObjectSketch<T> other){
+            for(int h = 0; h < other.levels.length; h++){
+                for(int i = 0; i < other.sizes[h]; i++){
+                    add(h, other.levels[h][i]);
+                }
+            }
+            for(int h = 0; h < levels.length; h++){
+                if(sizes[h] >= k){
+                    compact(h);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        T quantile(double q){
+            int total = 0;
+            for(int s : sizes) total += s;
+            Object[] values = new Object[total];
+            long[] weights = new long[total];
+            Integer[] order = new Integer[total];
+            long weightSum = 0;
+            for(int h = 0, p = 0; h < levels.length; h++){
+                for(int i = 0; i < sizes[h]; i++, p++){
+                    values[p] = levels[h][i];
+                    weights[p] = 1L << h;
+                    order[p] = p;
+                    weightSum += weights[p];
+                }
+            }
+            Arrays.sort(order, (a, b) -> comparator.compare((T) values[a], (T) values[b]));
+            double target = q * weightSum;
+            long cumulative = 0;
+            for(int i : order){
+                cumulative += weights[i];
+                if(cumulative >= target){
+                    return (T) values[i];
+                }
+            }
+            return (T) values[order[total - 1]];
+        }
+    }
+
+    public static void main(String [] args){
+        // streamMinMax in one pass
+        SummaryStatistics stats = Arrays.asList(0, 10, 15, 5, 25, 20).stream().collect(summarizingInt(i -> i));
+        System.out.println(stats);
+        // count=6, min=0.0, max=25.0, sum=75.0, mean=12.50, variance=72.92, median=10.0
+
+        // 10 million values, merged from parallel chunks
+        SummaryStatistics big = IntStream.range(0, 10_000_000).parallel()
+                .collect(SummaryStatistics::new, SummaryStatistics::accept, SummaryStatistics::combine);
+        System.out.printf("count=%d, mean=%.1f, p50~%.2fM, p99~%.2fM%n",
+                big.getCount(), big.getMean(), big.median() / 1e6, big.quantile(0.99) / 1e6);
+        // count=10000000, mean=4999999.5, p50~5.00M, p99~9.90M
+
+        OfComparable<String> names = Arrays.asList("rvk", "rkv", "abc", "say").stream()
+                .collect(OfComparable.collector());
+        System.out.println(names);
+        // count=4, min=abc, max=say, median=rkv
+    }
+}